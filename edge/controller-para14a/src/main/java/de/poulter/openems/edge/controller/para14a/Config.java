@@ -26,6 +26,8 @@ package de.poulter.openems.edge.controller.para14a;
 import org.osgi.service.metatype.annotations.AttributeDefinition;
 import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 
+import de.poulter.openems.lib.filter.FilterType;
+
 @ObjectClassDefinition(
     name = "Controller Paragraph14a",
     description = "Implements some support for §14a EnWG in OpenEMS with relais interface.")
@@ -58,23 +60,68 @@ import org.osgi.service.metatype.annotations.ObjectClassDefinition;
     @AttributeDefinition(name = "Digital Input Relais 4", description = "Input channel for relais E4.")
     String inputRelais4() default "io0/InputOutput3";
 
+    @AttributeDefinition(name = "Fast relais reaction", description = "React on relais changes within the same cycle and apply stricter limits without ramp. The pv inverter has to apply lower limits unfiltered as well (SE9K: 'Filter immediate decrease'), then a stricter limit is written in the cycle of the relais change.")
+    boolean fastRelaisReaction() default false;
+
     @AttributeDefinition(name = "GridMeter-Id", description = "The grid meter used for calculations.")
     String gridMeter_id() default "meter0";
 
     @AttributeDefinition(name = "GridMeter target filter", description = "This is auto-generated by 'GridMeter-Id'.")
     String gridMeter_target() default "(enabled=true)";
 
-    @AttributeDefinition(name = "PvInverter-Id", description = "Id of pv-inverter device.")
+    @AttributeDefinition(name = "PvInverter-Id", description = "Id of the pv-inverter device, used if no PvInverter-Ids are set.")
     String pvInverter_id() default "pvInverter0";
 
-    @AttributeDefinition(name = "PvInverter target filter", description = "This is auto-generated by 'PvInverter-Id'.")
-    String pvInverter_target() default "(enabled=true)";
+    @AttributeDefinition(name = "PvInverter-Ids", description = "Ids of pv-inverter devices.")
+    String[] pvInverter_ids() default {};
+
+    @AttributeDefinition(name = "PvInverters target filter", description = "This is auto-generated by 'PvInverter-Ids'.")
+    String pvInverters_target() default "(enabled=true)";
+
+    @AttributeDefinition(name = "PvInverter split mode", description = "How the limit is split across several pv inverters.")
+    PvInverterSplitMode pvInverterSplitMode() default PvInverterSplitMode.MAX_ACTIVE_POWER;
 
-    @AttributeDefinition(name = "EvcsCluster-Id", description = "Id of evcs cluster.")
+    @AttributeDefinition(name = "EvcsCluster-Id", description = "Id of the evcs cluster, used if no EvcsCluster-Ids are set.")
     String evcsCluster_id() default "evcsCluster0";
 
-    @AttributeDefinition(name = "EvcsCluster target filter", description = "This is auto-generated by 'EvcsCluster-Id'.")
-    String evcsCluster_target() default "(enabled=true)";
+    @AttributeDefinition(name = "EvcsCluster-Ids", description = "Ids of evcs clusters, ordered by priority.")
+    String[] evcsCluster_ids() default {};
+
+    @AttributeDefinition(name = "EvcsClusters target filter", description = "This is auto-generated by 'EvcsCluster-Ids'.")
+    String evcsClusters_target() default "(enabled=true)";
+
+    @AttributeDefinition(name = "Filter", description = "Filter used to smooth the calculated limits.")
+    FilterType filterType() default FilterType.WEIGHTED_MEAN;
+
+    @AttributeDefinition(name = "Filter EMA alpha", description = "Smoothing factor (0, 1] of the exponential moving average, higher values follow faster.")
+    double filterAlpha() default 0.3;
+
+    @AttributeDefinition(name = "Filter median window", description = "Amount of values used by the sliding median.")
+    int filterWindow() default 5;
+
+    @AttributeDefinition(name = "Filter Kalman process noise", description = "Expected variance of a limit between two cycles in W².")
+    double filterProcessNoise() default 250000.0;
+
+    @AttributeDefinition(name = "Filter Kalman measurement noise", description = "Variance of a single calculated limit in W².")
+    double filterMeasurementNoise() default 1000000.0;
+
+    @AttributeDefinition(name = "PV limit control mode", description = "Calculate the pv inverter limit with the filter or with a PID controller.")
+    LimitControlMode limitControlMode() default LimitControlMode.FILTER;
+
+    @AttributeDefinition(name = "PID Kp", description = "Proportional gain of the pv limit PID controller, 1.0 applies the full export error in one cycle.")
+    double pidKp() default 0.7;
+
+    @AttributeDefinition(name = "PID Ki", description = "Integral gain per cycle of the pv limit PID controller.")
+    double pidKi() default 0.2;
+
+    @AttributeDefinition(name = "PID Kd", description = "Derivative gain per cycle of the pv limit PID controller.")
+    double pidKd() default 0.0;
+
+    @AttributeDefinition(name = "Trace cycles", description = "Amount of processed cycles kept in the in-memory trace, dumped as JSON by writing TraceDump. 0 disables the trace.")
+    int traceCycles() default 0;
+
+    @AttributeDefinition(name = "Record file", description = "File the inputs of every cycle are recorded to for a later replay. Empty disables recording.")
+    String recordFile() default "";
 
     String webconsole_configurationFactory_nameHint() default "Controller Paragraph 14a [{id}]";
 }
@@ -25,21 +25,31 @@ package de.poulter.openems.edge.controller.para14a;
 
 import io.openems.common.types.OptionsEnum;
 
+// The severity orders the modes by the power they allow, independent of
+// the persisted value: REDUCED allows pMin plus pv production, OFF only pv
+// production and UNUSED nothing at all.
+
 public enum ConsumptionManagment implements OptionsEnum {
 
-    FULL   (3, "no limit"),
-    REDUCED(2, "reduced"),
-    UNUSED (1, "unused"),
-    OFF    (0, "off")
+    FULL   (3, "no limit", 0),
+    REDUCED(2, "reduced",  1),
+    UNUSED (1, "unused",   3),
+    OFF    (0, "off",      2)
 
     ;
 
     private final int value;
     private final String name;
+    private final int severity;
 
-    ConsumptionManagment(int value, String name) {
+    ConsumptionManagment(int value, String name, int severity) {
         this.value = value;
         this.name = name;
+        this.severity = severity;
+    }
+
+    public boolean isStricterThan(ConsumptionManagment other) {
+        return severity > other.severity;
     }
 
     @Override
@@ -24,12 +24,15 @@
 package de.poulter.openems.edge.controller.para14a;
 
 import static io.openems.common.channel.PersistencePriority.HIGH;
+import static io.openems.common.types.OpenemsType.BOOLEAN;
 import static io.openems.common.types.OpenemsType.INTEGER;
 import static io.openems.common.types.OpenemsType.LONG;
 import static io.openems.common.channel.Unit.NONE;
 import static io.openems.common.channel.Unit.WATT;
 import static io.openems.common.channel.Unit.CUMULATED_SECONDS;
+import static io.openems.common.channel.Unit.MILLISECONDS;
 import static io.openems.common.channel.Level.INFO;
+import static io.openems.common.channel.AccessMode.WRITE_ONLY;
 
 import io.openems.edge.common.channel.Channel;
 import io.openems.edge.common.channel.Doc;
@@ -62,6 +65,16 @@ public interface ControllerParagraph14a extends Controller, OpenemsComponent{
         EVCS_RESTRICTION_TIME(Doc.of(LONG).unit(CUMULATED_SECONDS).persistencePriority(HIGH)),
         PVINVERTER_RESTRICTION_TIME(Doc.of(LONG).unit(CUMULATED_SECONDS).persistencePriority(HIGH)),
 
+        PVINVERTER_LIMIT_LATENCY_P50(Doc.of(INTEGER).unit(MILLISECONDS).persistencePriority(HIGH).text("Median time from stricter production managment to reduced pv inverter limit")),
+        PVINVERTER_LIMIT_LATENCY_P95(Doc.of(INTEGER).unit(MILLISECONDS).persistencePriority(HIGH).text("95th percentile of time from stricter production managment to reduced pv inverter limit")),
+        PVINVERTER_LIMIT_LATENCY_MAX(Doc.of(INTEGER).unit(MILLISECONDS).persistencePriority(HIGH).text("Maximum time from stricter production managment to reduced pv inverter limit")),
+
+        EVCS_LIMIT_LATENCY_P50(Doc.of(INTEGER).unit(MILLISECONDS).persistencePriority(HIGH).text("Median time from stricter consumption managment to reduced evcs cluster power")),
+        EVCS_LIMIT_LATENCY_P95(Doc.of(INTEGER).unit(MILLISECONDS).persistencePriority(HIGH).text("95th percentile of time from stricter consumption managment to reduced evcs cluster power")),
+        EVCS_LIMIT_LATENCY_MAX(Doc.of(INTEGER).unit(MILLISECONDS).persistencePriority(HIGH).text("Maximum time from stricter consumption managment to reduced evcs cluster power")),
+
+        TRACE_DUMP(Doc.of(BOOLEAN).accessMode(WRITE_ONLY).text("Write true to log the in-memory cycle trace as JSON")),
+
         ;
 
         private final Doc doc;
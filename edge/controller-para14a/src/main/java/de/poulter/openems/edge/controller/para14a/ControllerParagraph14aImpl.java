@@ -23,7 +23,14 @@
 
 package de.poulter.openems.edge.controller.para14a;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.osgi.service.cm.ConfigurationAdmin;
 import org.osgi.service.component.ComponentContext;
@@ -41,11 +48,18 @@ import org.osgi.service.event.propertytypes.EventTopics;
 import org.osgi.service.metatype.annotations.Designate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.helpers.MessageFormatter;
 
-import de.poulter.openems.lib.mean.WeightedMean;
+import de.poulter.openems.lib.control.PidController;
+import de.poulter.openems.lib.filter.IntFilter;
+import de.poulter.openems.lib.mean.IntWeightedMean;
+import de.poulter.openems.lib.trace.CycleTrace;
+import de.poulter.openems.lib.trace.RecordFileWriter;
 import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.exceptions.OpenemsException;
 import io.openems.common.types.ChannelAddress;
 import io.openems.edge.common.channel.BooleanReadChannel;
+import io.openems.edge.common.channel.BooleanWriteChannel;
 import io.openems.edge.common.channel.IntegerReadChannel;
 import io.openems.edge.common.channel.IntegerWriteChannel;
 import io.openems.edge.common.channel.value.Value;
@@ -70,7 +84,8 @@ import io.openems.common.utils.IntUtils;
     configurationPolicy = ConfigurationPolicy.REQUIRE
 )
 @EventTopics({
-    EdgeEventConstants.TOPIC_CYCLE_BEFORE_CONTROLLERS
+    EdgeEventConstants.TOPIC_CYCLE_BEFORE_CONTROLLERS,
+    EdgeEventConstants.TOPIC_CONFIG_UPDATE
 })
 public class ControllerParagraph14aImpl extends AbstractOpenemsComponent 
     implements ControllerParagraph14a, Controller, OpenemsComponent, TimedataProvider, EventHandler
@@ -78,6 +93,29 @@ public class ControllerParagraph14aImpl extends AbstractOpenemsComponent
 
     private static final Logger log = LoggerFactory.getLogger(ControllerParagraph14aImpl.class);
 
+    // weights for the default weighted mean filter, oldest value first
+    private static final int[] LIMIT_WEIGHTS = { 15, 15, 15, 15, 20, 30, 40, 50, 60, 75 };
+
+    // minimum power of a single evcs according to BK-622-300
+    private static final int P_MIN_SINGLE_EVCS = 4200;
+
+    // fields of the cycle trace
+    private static final int TRACE_PRODUCTION = 0;
+    private static final int TRACE_CONSUMPTION = 1;
+    private static final int TRACE_RELAIS = 2;
+    private static final int TRACE_RELAIS_DEFINED = 3;
+    private static final int TRACE_GRID_ACTIVE_POWER = 4;
+    private static final int TRACE_PVINVERTER_ACTIVE_POWER = 5;
+    private static final int TRACE_PVINVERTER_TARGET_LIMIT = 6;
+    private static final int TRACE_PVINVERTER_LIMIT = 7;
+    private static final int TRACE_EVCS_TARGET_LIMIT = 8;
+    private static final int TRACE_EVCS_LIMIT = 9;
+    private static final int TRACE_RUN_FAILED = 10;
+    private static final String[] TRACE_FIELDS = {
+        "production", "consumption", "relais", "relaisDefined", "gridActivePower", "pvInverterActivePower",
+        "pvInverterTargetLimit", "pvInverterLimit", "evcsTargetLimit", "evcsLimit", "runFailed"
+    };
+
     @Reference
     private ConfigurationAdmin cm;
 
@@ -87,36 +125,73 @@ public class ControllerParagraph14aImpl extends AbstractOpenemsComponent
     @Reference(policy = ReferencePolicy.DYNAMIC, policyOption = ReferencePolicyOption.GREEDY, cardinality = ReferenceCardinality.OPTIONAL)
     private volatile Timedata timedata = null;
 
-    // Relais
+    // Relais, channels are resolved on first use and again after every
+    // edge config update, values are read once per cycle into a bit mask
     private RelaisMode relaisMode;
-    private ChannelAddress inputRelais1;
-    private ChannelAddress inputRelais2;
-    private ChannelAddress inputRelais3;
-    private ChannelAddress inputRelais4;
+    private final ChannelAddress[] inputRelais = new ChannelAddress[4];
+    private final BooleanReadChannel[] inputRelaisChannels = new BooleanReadChannel[4];
+    private volatile int inputRelaisMask;
+    private volatile int inputRelaisDefinedMask;
+    private volatile boolean inputRelaisChannelsOutdated = true;
+
+    // fast relais reaction, relais changes are picked up again in run()
+    // and a stricter managment skips the ramp of the limit filters. The
+    // limit reaches the inverter in the same cycle only if its driver does
+    // not smooth decreases itself, otherwise add the driver's ramp.
+    // Drivers set the relais every cycle, only a value that differs from
+    // the last sample counts as a change.
+    private boolean fastRelaisReaction;
+    private volatile boolean inputRelaisChanged;
+    private final InputRelaisCallback[] onInputRelaisSetNextValue = {
+        new InputRelaisCallback(0), new InputRelaisCallback(1), new InputRelaisCallback(2), new InputRelaisCallback(3)
+    };
+    private boolean pvInverterFastPath;
+    private boolean evcsFastPath;
 
     // grid meter
     @Reference(policy = ReferencePolicy.STATIC, policyOption = ReferencePolicyOption.GREEDY, cardinality = ReferenceCardinality.MANDATORY)
     private ElectricityMeter gridMeter;
 
-    // pv inverter
-    @Reference(policy = ReferencePolicy.STATIC, policyOption = ReferencePolicyOption.GREEDY, cardinality = ReferenceCardinality.MANDATORY)
-    private ManagedSymmetricPvInverter pvInverter;
+    // pv inverters, the limit is calculated for all of them and then split
+    @Reference(policy = ReferencePolicy.STATIC, policyOption = ReferencePolicyOption.GREEDY, cardinality = ReferenceCardinality.MULTIPLE)
+    private List<ManagedSymmetricPvInverter> pvInverters;
+    private LimitDistribution pvInverterLimitDistribution = new LimitDistribution(0);
+    private PvInverterSplitMode pvInverterSplitMode = PvInverterSplitMode.MAX_ACTIVE_POWER;
     private Optional<Integer> pvInverterActivePowerLimit = Optional.empty();
-    private WeightedMean pvInverterActivePowerLimitMean = new WeightedMean(15d, 15d, 15d, 15d, 20d, 30d, 40d, 50d, 60d, 75d);
+    private IntFilter pvInverterActivePowerLimitMean = new IntWeightedMean(LIMIT_WEIGHTS);
+    private LimitControlMode limitControlMode = LimitControlMode.FILTER;
+    private PidController pvInverterActivePowerLimitPid;
     private CalculateActiveTime pvInverterRestrictionTime = new CalculateActiveTime(this, ControllerParagraph14a.ChannelId.PVINVERTER_RESTRICTION_TIME);
-
-    // evcs
-    @Reference(policy = ReferencePolicy.STATIC, policyOption = ReferencePolicyOption.GREEDY, cardinality = ReferenceCardinality.MANDATORY)
-    private ManagedEvcsCluster evcsCluster;
+    private Integer pvInverterTargetLimit = null;
+    private final LimitLatency pvInverterLimitLatency = new LimitLatency(this::clockNanos);
+
+    // evcs clusters, the budget is calculated for all of them and then split by priority
+    @Reference(policy = ReferencePolicy.STATIC, policyOption = ReferencePolicyOption.GREEDY, cardinality = ReferenceCardinality.MULTIPLE)
+    private List<ManagedEvcsCluster> evcsClusters;
+    private ManagedEvcsCluster[] evcsClustersByPriority = new ManagedEvcsCluster[0];
+    private PriorityDistribution evcsClusterDistribution = new PriorityDistribution(0);
     private Optional<Integer> evcsClusterMaximumAllowedPowerToDistribute = Optional.empty();
-    private WeightedMean evcsClusterMaximumAllowedPowerToDistributeMean = new WeightedMean(15d ,15d ,15d ,15d ,20d ,30d ,40d ,50d ,60d ,75d);
+    private IntFilter evcsClusterMaximumAllowedPowerToDistributeMean = new IntWeightedMean(LIMIT_WEIGHTS);
     private CalculateActiveTime evcsRestrictionTime = new CalculateActiveTime(this, ControllerParagraph14a.ChannelId.EVCS_RESTRICTION_TIME);
+    private Integer evcsTargetLimit = null;
+    private final LimitLatency evcsLimitLatency = new LimitLatency(this::clockNanos);
 
     // misc
     private ProductionManagment production = ProductionManagment.OFF;
     private ConsumptionManagment consumption = ConsumptionManagment.OFF;
     private boolean debugMode;
 
+    // set after a cycle without any restriction has been processed without
+    // failure, while nothing changes there is nothing to calculate and
+    // nothing to write
+    private boolean steadyState;
+
+    // last processed cycles, only dumped on demand
+    private CycleTrace cycleTrace;
+
+    // inputs of every cycle, for a replay of the controller
+    private RecordFileWriter recordFileWriter;
+
     public ControllerParagraph14aImpl() {
         super(
             OpenemsComponent.ChannelId.values(),
@@ -133,24 +208,45 @@ public class ControllerParagraph14aImpl extends AbstractOpenemsComponent
             return;
         }
 
-        if (OpenemsComponent.updateReferenceFilter(cm, this.servicePid(), "pvInverter", config.pvInverter_id())) {
+        String[] pvInverterIds = requiredIds(config.pvInverter_ids(), config.pvInverter_id(), "PvInverter");
+        if (OpenemsComponent.updateReferenceFilter(cm, this.servicePid(), "pvInverters", pvInverterIds)) {
             return;
         }
 
-        if (OpenemsComponent.updateReferenceFilter(cm, this.servicePid(), "evcsCluster", config.evcsCluster_id())) {
+        String[] evcsClusterIds = requiredIds(config.evcsCluster_ids(), config.evcsCluster_id(), "EvcsCluster");
+        if (OpenemsComponent.updateReferenceFilter(cm, this.servicePid(), "evcsClusters", evcsClusterIds)) {
             return;
         }
 
-        inputRelais1 = ChannelAddress.fromString(config.inputRelais1());
-        inputRelais2 = ChannelAddress.fromString(config.inputRelais2());
-        inputRelais3 = ChannelAddress.fromString(config.inputRelais3());
-        inputRelais4 = ChannelAddress.fromString(config.inputRelais4());
+        inputRelais[0] = ChannelAddress.fromString(config.inputRelais1());
+        inputRelais[1] = ChannelAddress.fromString(config.inputRelais2());
+        inputRelais[2] = ChannelAddress.fromString(config.inputRelais3());
+        inputRelais[3] = ChannelAddress.fromString(config.inputRelais4());
+        inputRelaisChannelsOutdated = true;
+
+        fastRelaisReaction = config.fastRelaisReaction();
+        inputRelaisChanged = false;
+        pvInverterFastPath = false;
+        evcsFastPath = false;
 
         debugMode = config.debugMode();
         relaisMode = config.relaisMode();
 
+        pvInverterLimitDistribution = new LimitDistribution((pvInverters == null) ? 0 : pvInverters.size());
+        pvInverterSplitMode = config.pvInverterSplitMode();
+        pvInverterActivePowerLimitMean = createFilter(config);
+        limitControlMode = config.limitControlMode();
+        pvInverterActivePowerLimitPid = new PidController(config.pidKp(), config.pidKi(), config.pidKd(), 0d, 0d);
+        evcsClusterMaximumAllowedPowerToDistributeMean = createFilter(config);
+        evcsClustersByPriority = sortByIds(evcsClusters, evcsClusterIds);
+        evcsClusterDistribution = new PriorityDistribution(evcsClustersByPriority.length);
+
+        cycleTrace = (config.traceCycles() > 0) ? new CycleTrace(config.traceCycles(), TRACE_FIELDS) : null;
+        openRecordFile(config.recordFile());
+
         production = ProductionManagment.OFF;
         consumption = ConsumptionManagment.OFF;
+        steadyState = false;
 
         getRunFailedChannel().setNextValue(false);
     }
@@ -160,12 +256,67 @@ public class ControllerParagraph14aImpl extends AbstractOpenemsComponent
     protected void deactivate() {
         super.deactivate();
 
+        releaseInputRelaisChannels();
+        closeRecordFile();
+
         production = ProductionManagment.OFF;
         consumption = ConsumptionManagment.OFF;
+        steadyState = false;
 
         getRunFailedChannel().setNextValue(false);
     }
 
+    // Configurations before several devices were supported only have the
+    // single id, it is used as long as no ids are set.
+    static String[] configuredIds(String[] ids, String id) {
+        if (ids != null && ids.length > 0) return ids;
+        if (id == null || id.isBlank()) return new String[0];
+
+        return new String[] { id };
+    }
+
+    // An empty id list would give a reference filter that matches every
+    // device, so the activation fails instead.
+    static String[] requiredIds(String[] ids, String id, String name) throws OpenemsException {
+        String[] configuredIds = configuredIds(ids, id);
+        if (configuredIds.length == 0) {
+            throw new OpenemsException("No " + name + " id configured.");
+        }
+
+        return configuredIds;
+    }
+
+    // OSGi does not keep the configured order, so sort the clusters once.
+    // Clusters that are not bound are skipped, the others keep their
+    // configured position relative to each other.
+    static ManagedEvcsCluster[] sortByIds(List<ManagedEvcsCluster> evcsClusters, String[] ids) {
+        if (evcsClusters == null) return new ManagedEvcsCluster[0];
+
+        ManagedEvcsCluster[] sorted = new ManagedEvcsCluster[evcsClusters.size()];
+        int count = 0;
+
+        for (String id : ids) {
+            for (ManagedEvcsCluster evcsCluster : evcsClusters) {
+                if (evcsCluster.id().equals(id)) {
+                    sorted[count++] = evcsCluster;
+                    break;
+                }
+            }
+        }
+
+        return (count == sorted.length) ? sorted : Arrays.copyOf(sorted, count);
+    }
+
+    private static IntFilter createFilter(Config config) {
+        return config.filterType().createInt(
+            LIMIT_WEIGHTS,
+            config.filterAlpha(),
+            config.filterWindow(),
+            config.filterProcessNoise(),
+            config.filterMeasurementNoise()
+        );
+    }
+
     @Override
     public Timedata getTimedata() {
         return timedata;
@@ -177,6 +328,13 @@ public class ControllerParagraph14aImpl extends AbstractOpenemsComponent
         }
     }
 
+    // formatted like slf4j, only in debug mode
+    private void logDebug(String format, Object... arguments) {
+        if (debugMode) {
+            logInfo(log, MessageFormatter.arrayFormat(format, arguments).getMessage());
+        }
+    }
+
     @Override
     public String debugLog() {
         return "PM:" + production + ", " + pvInverterActivePowerLimit.orElse(null) + 
@@ -189,28 +347,64 @@ public class ControllerParagraph14aImpl extends AbstractOpenemsComponent
 
         switch (event.getTopic()) {
             case EdgeEventConstants.TOPIC_CYCLE_BEFORE_CONTROLLERS:
-                clearEvcsMaximumAllowedPowerToDistribute();
                 mapRelaisInputsToManagementModes();
+
+                // also in the steady state, no limit of an earlier cycle is kept
+                clearEvcsMaximumAllowedPowerToDistribute();
+                break;
+
+            case EdgeEventConstants.TOPIC_CONFIG_UPDATE:
+                inputRelaisChannelsOutdated = true;
                 break;
         }
     }
 
     @Override
     public void run() throws OpenemsNamedException {
-        logDebug("production managment:  " + production);
-        logDebug("consumption managment: " + consumption);
+        if (fastRelaisReaction && inputRelaisChanged) {
+            logDebug("relais changed since cycle start");
+            mapRelaisInputsToManagementModes();
+        }
+
+        BooleanWriteChannel traceDumpChannel = channel(ControllerParagraph14a.ChannelId.TRACE_DUMP);
+        if (traceDumpChannel.getNextWriteValueAndReset().orElse(false)) {
+            dumpCycleTrace();
+        }
+
+        recordCycle();
+
+        if (steadyState) return;
+
+        logDebug("production managment:  {}", production);
+        logDebug("consumption managment: {}", consumption);
 
         getRunFailedChannel().setNextValue(false);
 
-        calculatePvInverterActivePowerLimit();
-        checkPvInverterLimit();
+        try {
+            calculatePvInverterActivePowerLimit();
+            checkPvInverterLimit();
 
-        calculateEvcsClusterMaximumAllowedPowerToDistribute();
+            calculateEvcsClusterMaximumAllowedPowerToDistribute();
+
+        } finally {
+            // a fast path only applies to the cycle of the relais change,
+            // also if the calculation stopped early
+            pvInverterFastPath = false;
+            evcsFastPath = false;
+        }
 
         pvInverterRestrictionTime.update(!ProductionManagment.FULL.equals(production));
         evcsRestrictionTime.update(!ConsumptionManagment.FULL.equals(consumption));
 
         checkEvcsMaximumAllowedPowerToDistribute();
+
+        updateLimitLatencies();
+
+        traceCycle();
+
+        steadyState = ProductionManagment.FULL.equals(production)
+            && ConsumptionManagment.FULL.equals(consumption)
+            && !Boolean.TRUE.equals(getRunFailedChannel().getNextValue().get());
     }
 
     ////////////////////////////////////////////////////////////////////
@@ -219,104 +413,130 @@ public class ControllerParagraph14aImpl extends AbstractOpenemsComponent
     //
     ////////////////////////////////////////////////////////////////////
 
-    private Boolean readInputRelais(ChannelAddress channelAddress) {
-        try {
-            BooleanReadChannel booleanReadChannel = this.componentManager.getChannel(channelAddress);
-            return booleanReadChannel.value().get();
+    private void readInputRelais() {
+        if (inputRelaisChannelsOutdated) {
+            inputRelaisChannelsOutdated = false;
+            releaseInputRelaisChannels();
+        }
 
-        } catch (IllegalArgumentException | OpenemsNamedException ex) {
-            logError(log, "Could not read " + channelAddress + ".");
-            getRunFailedChannel().setNextValue(true);
+        int mask = 0;
+        int definedMask = 0;
+
+        int inputCount = relaisMode.getInputCount();
+        for (int i = 0; i < inputCount; i++) {
+            Boolean value = readInputRelais(i);
+            if (value == null) continue;
+
+            definedMask |= 1 << i;
+            if (value) mask |= 1 << i;
         }
 
-        return null;
+        inputRelaisMask = mask;
+        inputRelaisDefinedMask = definedMask;
     }
 
-    private void mapRelaisInputsToManagementModes() {
+    private Boolean readInputRelais(int index) {
+        BooleanReadChannel booleanReadChannel = inputRelaisChannels[index];
 
-        logDebug("relaisMode: " + relaisMode);
-        logDebug("  inputRelais1: " + inputRelais1.getChannelId() + ", " + readInputRelais(inputRelais1));
-        logDebug("  inputRelais2: " + inputRelais2.getChannelId() + ", " + readInputRelais(inputRelais2));
-        logDebug("  inputRelais3: " + inputRelais3.getChannelId() + ", " + readInputRelais(inputRelais3));
-        logDebug("  inputRelais4: " + inputRelais4.getChannelId() + ", " + readInputRelais(inputRelais4));
-
-        switch(relaisMode) {
-            case DreiRelais1StbE:
-                production = ProductionManagment.getForInputs(
-                    readInputRelais(inputRelais1),
-                    readInputRelais(inputRelais2),
-                    readInputRelais(inputRelais3)
-                );
-                break;
+        if (booleanReadChannel == null) {
+            try {
+                booleanReadChannel = this.componentManager.getChannel(inputRelais[index]);
+                inputRelaisChannels[index] = booleanReadChannel;
 
-            case Einzelkontakt4StbV:
-                consumption = ConsumptionManagment.getForInput(
-                    readInputRelais(inputRelais1)
-                );
-                break;
+                if (fastRelaisReaction) {
+                    booleanReadChannel.onSetNextValue(onInputRelaisSetNextValue[index]);
+                }
 
-            case VierRelais1StbE:
-                production = ProductionManagment.getForInputs(
-                    readInputRelais(inputRelais1),
-                    readInputRelais(inputRelais2),
-                    readInputRelais(inputRelais3),
-                    readInputRelais(inputRelais4)
-                );
-                break;
+            } catch (IllegalArgumentException | OpenemsNamedException ex) {
+                logError(log, "Could not read " + inputRelais[index] + ".");
+                getRunFailedChannel().setNextValue(true);
+                return null;
+            }
+        }
 
-            case FNN2bit1StbV:
-                consumption = ConsumptionManagment.getForInputs(
-                    readInputRelais(inputRelais1),
-                    readInputRelais(inputRelais2)
-                );
-                production = ProductionManagment.OFF;
-                break;
+        // the next value is the latest state, value() is only updated at cycle start
+        return fastRelaisReaction
+            ? booleanReadChannel.getNextValue().get()
+            : booleanReadChannel.value().get();
+    }
 
-            case FNN2bit2StbV:
-                consumption = ConsumptionManagment.getForInputs(
-                    readInputRelais(inputRelais1),
-                    readInputRelais(inputRelais2)
-                );
-                production = ProductionManagment.OFF;
-                break;
+    private void releaseInputRelaisChannels() {
+        for (int i = 0; i < inputRelaisChannels.length; i++) {
+            if (inputRelaisChannels[i] != null) {
+                inputRelaisChannels[i].removeOnSetNextValueCallback(onInputRelaisSetNextValue[i]);
+                inputRelaisChannels[i] = null;
+            }
+        }
+    }
 
-            case FNN2bit1StbE:
-                consumption = ConsumptionManagment.OFF;
-                production = ProductionManagment.getForInputs(
-                    readInputRelais(inputRelais1),
-                    readInputRelais(inputRelais2)
-                );
-                break;
+    boolean isInputRelaisChanged() {
+        return inputRelaisChanged;
+    }
 
-            case FNN2bit2StbE:
-                consumption = ConsumptionManagment.OFF;
-                production = ProductionManagment.getForInputs(
-                    readInputRelais(inputRelais1),
-                    readInputRelais(inputRelais2)
-                );
-                break;
+    private final class InputRelaisCallback implements Consumer<Value<Boolean>> {
 
-            case FNN2bit1StbV1StbE:
-                consumption = ConsumptionManagment.getForInputs(
-                    readInputRelais(inputRelais1),
-                    readInputRelais(inputRelais2)
-                );
-                production = ProductionManagment.getForInputs(
-                    readInputRelais(inputRelais3),
-                    readInputRelais(inputRelais4)
-                );
-                break;
+        private final int bit;
 
-            default:
-                logWarn(log, "Mode " + relaisMode + " is not supported yet.");
-                getRunFailedChannel().setNextValue(true);
+        private InputRelaisCallback(int index) {
+            this.bit = 1 << index;
+        }
 
-            case None:
-                production = ProductionManagment.OFF;
-                consumption = ConsumptionManagment.OFF;
+        @Override
+        public void accept(Value<Boolean> value) {
+            Boolean sampled = ((inputRelaisDefinedMask & bit) == 0) ? null : (inputRelaisMask & bit) != 0;
+            if (!Objects.equals(value.get(), sampled)) {
+                inputRelaisChanged = true;
+            }
+        }
+    }
+
+    private void mapRelaisInputsToManagementModes() {
+        inputRelaisChanged = false;
+        readInputRelais();
 
+        if (debugMode) {
+            logDebug("relaisMode: {}", relaisMode);
+            for (int i = 0; i < inputRelais.length; i++) {
+                Boolean value = ((inputRelaisDefinedMask & (1 << i)) == 0) ? null : (inputRelaisMask & (1 << i)) != 0;
+                logDebug("  inputRelais{}: {}, {}", i + 1, inputRelais[i].getChannelId(), value);
+            }
         }
 
+        ProductionManagment nextProduction = relaisMode.getProduction(inputRelaisMask, inputRelaisDefinedMask);
+        ConsumptionManagment nextConsumption = relaisMode.getConsumption(inputRelaisMask, inputRelaisDefinedMask);
+
+        if (nextProduction.isStricterThan(production)) {
+            pvInverterLimitLatency.start();
+
+            if (fastRelaisReaction) {
+                logDebug("stricter production managment {}, fast path", nextProduction);
+                pvInverterFastPath = true;
+            }
+
+        } else if (production.isStricterThan(nextProduction)) {
+            pvInverterLimitLatency.cancel();
+        }
+
+        if (nextConsumption.isStricterThan(consumption)) {
+            evcsLimitLatency.start();
+
+            if (fastRelaisReaction) {
+                logDebug("stricter consumption managment {}, fast path", nextConsumption);
+                evcsFastPath = true;
+            }
+
+        } else if (consumption.isStricterThan(nextConsumption)) {
+            evcsLimitLatency.cancel();
+        }
+
+        boolean changed = !nextProduction.equals(production) || !nextConsumption.equals(consumption);
+
+        production = nextProduction;
+        consumption = nextConsumption;
+
+        if (steadyState && !changed) return;
+        steadyState = false;
+
         _setProductionManagment(production);
         _setConsumptionManagmentChannel(consumption);
 
@@ -338,7 +558,7 @@ public class ControllerParagraph14aImpl extends AbstractOpenemsComponent
 
     private void checkPvInverterLimit() {
 
-        if (pvInverter == null) {
+        if (pvInverters == null || pvInverters.isEmpty()) {
             logDebug("No pvInverter defined.");
 
             getRunFailedChannel().setNextValue(true);
@@ -346,35 +566,45 @@ public class ControllerParagraph14aImpl extends AbstractOpenemsComponent
             return;
         }
 
-        IntegerWriteChannel activePowerLimitChannel = pvInverter.getActivePowerLimitChannel();
-        logDebug("checkPvInverterLimit activePowerLimitChannel "+ activePowerLimitChannel.getNextWriteValue());
+        for (int i = 0; i < pvInverters.size(); i++) {
+            ManagedSymmetricPvInverter pvInverter = pvInverters.get(i);
 
-        Optional<Integer> activePowerLimit = activePowerLimitChannel
-            .getNextWriteValue()
-            .map( value -> (value < 0) ? null : value )
-            .map( value -> Optional.of(Math.min(value, pvInverterActivePowerLimit.orElse(Integer.MAX_VALUE))))
-            .orElse(pvInverterActivePowerLimit);
+            IntegerWriteChannel activePowerLimitChannel = pvInverter.getActivePowerLimitChannel();
+            if (debugMode) {
+                logDebug("checkPvInverterLimit {} activePowerLimitChannel {}", pvInverter.id(), activePowerLimitChannel.getNextWriteValue());
+            }
 
-        logDebug("checkPvInverterLimit activePowerLimit "+ activePowerLimit);
+            // our share of the limit, combined with limits of other controllers
+            Integer activePowerLimit = pvInverterActivePowerLimit.isPresent() ? pvInverterLimitDistribution.getLimit(i) : null;
 
-        try {
-            if (activePowerLimit.isPresent()) {
-                activePowerLimitChannel.setNextWriteValue(activePowerLimit.get());
+            Integer nextWriteValue = activePowerLimitChannel.getNextWriteValue().orElse(null);
+            if (nextWriteValue != null && nextWriteValue >= 0) {
+                activePowerLimit = (activePowerLimit == null) ? nextWriteValue : Math.min(nextWriteValue, activePowerLimit);
             }
 
-        } catch (OpenemsNamedException ex) {
-            log.error("Could not set new limit on pv inverter.", ex);
+            logDebug("checkPvInverterLimit {} activePowerLimit {}", pvInverter.id(), activePowerLimit);
 
-            getRunFailedChannel().setNextValue(true);
-        }
+            try {
+                if (activePowerLimit != null) {
+                    activePowerLimitChannel.setNextWriteValue(activePowerLimit);
+                }
+
+            } catch (OpenemsNamedException ex) {
+                log.error("Could not set new limit on pv inverter " + pvInverter.id() + ".", ex);
 
-        logDebug("checkPvInverterLimit activePowerLimitChannel "+ activePowerLimitChannel.getNextWriteValue());
+                getRunFailedChannel().setNextValue(true);
+            }
+
+            if (debugMode) {
+                logDebug("checkPvInverterLimit {} activePowerLimitChannel {}", pvInverter.id(), activePowerLimitChannel.getNextWriteValue());
+            }
+        }
     }
 
     private void calculatePvInverterActivePowerLimit() throws OpenemsNamedException {
         logDebug("-PvInverter--------");
 
-        if (pvInverter == null) {
+        if (pvInverters == null || pvInverters.isEmpty()) {
             logWarn(log, "No Pv inverter.");
             logDebug("-------------------");
 
@@ -382,31 +612,40 @@ public class ControllerParagraph14aImpl extends AbstractOpenemsComponent
             return;
         }
 
-        Value<Integer> pvInverterActivePowerValue = pvInverter.getActivePower();
-        if (!pvInverterActivePowerValue.isDefined()) {
-            logWarn(log, "Pv inverter has no active power defined.");
-            logDebug("-------------------");
+        int pvInverterActivePower = 0;
+        int pvInverterMaxActivePower = 0;
 
-            getRunFailedChannel().setNextValue(true);
-            return;
-        }
+        for (int i = 0; i < pvInverters.size(); i++) {
+            ManagedSymmetricPvInverter pvInverter = pvInverters.get(i);
 
-        int pvInverterActivePower = pvInverterActivePowerValue.get();
-        _setPvInverterActivePower(pvInverterActivePower);
-        logDebug("pvInverterActivePower " + pvInverterActivePower);
+            Value<Integer> pvInverterActivePowerValue = pvInverter.getActivePower();
+            if (!pvInverterActivePowerValue.isDefined()) {
+                logWarn(log, "Pv inverter " + pvInverter.id() + " has no active power defined.");
+                logDebug("-------------------");
 
-        Value<Integer> pvInverterMaxActivePowerValue = pvInverter.getMaxActivePower();
-        if (!pvInverterMaxActivePowerValue.isDefined()) {
-            logWarn(log, "Pv inverter has no max active power defined.");
-            logDebug("-------------------");
+                getRunFailedChannel().setNextValue(true);
+                return;
+            }
 
-            getRunFailedChannel().setNextValue(true);
-            return;
+            Value<Integer> pvInverterMaxActivePowerValue = pvInverter.getMaxActivePower();
+            if (!pvInverterMaxActivePowerValue.isDefined()) {
+                logWarn(log, "Pv inverter " + pvInverter.id() + " has no max active power defined.");
+                logDebug("-------------------");
+
+                getRunFailedChannel().setNextValue(true);
+                return;
+            }
+
+            pvInverterLimitDistribution.set(i, pvInverterMaxActivePowerValue.get(), pvInverterActivePowerValue.get());
+            pvInverterActivePower += pvInverterActivePowerValue.get();
+            pvInverterMaxActivePower += pvInverterMaxActivePowerValue.get();
         }
 
-        int pvInverterMaxActivePower = pvInverterMaxActivePowerValue.get();
+        _setPvInverterActivePower(pvInverterActivePower);
+        logDebug("pvInverterActivePower {}", pvInverterActivePower);
+
         _setPvInverterMaxActivePower(pvInverterMaxActivePower);
-        logDebug("pvInverterMaxActivePower " + pvInverterMaxActivePower);
+        logDebug("pvInverterMaxActivePower {}", pvInverterMaxActivePower);
 
         // no limit, just set hardware max on every pv inverter
         if (ProductionManagment.FULL.equals(production)) {
@@ -414,29 +653,52 @@ public class ControllerParagraph14aImpl extends AbstractOpenemsComponent
             logDebug("-------------------");
 
             pvInverterActivePowerLimitMean.clear();
+            pvInverterActivePowerLimitPid.reset();
             pvInverterActivePowerLimit = Optional.empty();
+            pvInverterTargetLimit = null;
             _setPvInverterActivePowerLimit(null);
 
             return;
         }
 
+        // The export is limited at the grid connection point, so the balance
+        // of all phases counts. The pv inverters feed in symmetrically, a per
+        // phase limit would never allow more than the total.
         int gridActivePower = gridMeter.getActivePower().orElse(0);
         int consumptionPower = (gridActivePower > 0) ? gridActivePower : 0;
         int productionPower = (gridActivePower < 0) ? gridActivePower * -1: 0;
-        logDebug("consumption " + consumptionPower + ", production " + productionPower + ", gridActivePower " + gridActivePower);
+        logDebug("consumption {}, production {}, gridActivePower {}", consumptionPower, productionPower, gridActivePower);
 
         // max allowed active production on grid meter
         int activePowerLimit = Math.floorDiv(pvInverterMaxActivePower * production.getFactor(), 100);
-        logDebug("activePowerLimit " + activePowerLimit);
+        logDebug("activePowerLimit {}", activePowerLimit);
+
+        // positive if more production is allowed, negative if too much is exported
+        int exportError = activePowerLimit + gridActivePower;
 
         activePowerLimit += gridActivePower + pvInverterActivePower;
-        logDebug("activePowerLimit " + activePowerLimit);
+        logDebug("activePowerLimit {}", activePowerLimit);
 
         activePowerLimit = IntUtils.fitWithin(0, pvInverterMaxActivePower, activePowerLimit);
-        logDebug("activePowerLimit " + activePowerLimit);
+        logDebug("activePowerLimit {}", activePowerLimit);
 
-        activePowerLimit = (int) pvInverterActivePowerLimitMean.nextValue(activePowerLimit);
-        logDebug("activePowerLimit " + activePowerLimit);
+        pvInverterTargetLimit = activePowerLimit;
+
+        if (pvInverterFastPath) {
+            pvInverterActivePowerLimitMean.clear();
+            pvInverterActivePowerLimitPid.reset();
+        }
+
+        activePowerLimit = switch (limitControlMode) {
+            case PID -> {
+                pvInverterActivePowerLimitPid.setOutputLimits(0d, Math.max(0, pvInverterMaxActivePower));
+                yield (int) Math.round(pvInverterActivePowerLimitPid.update(exportError, pvInverterActivePower));
+            }
+            case FILTER -> pvInverterActivePowerLimitMean.nextValue(activePowerLimit);
+        };
+        logDebug("activePowerLimit {}", activePowerLimit);
+
+        pvInverterLimitDistribution.distribute(activePowerLimit, pvInverterSplitMode);
 
         pvInverterActivePowerLimit = Optional.of(activePowerLimit);
         _setPvInverterActivePowerLimit(activePowerLimit);
@@ -453,51 +715,56 @@ public class ControllerParagraph14aImpl extends AbstractOpenemsComponent
 
     private void clearEvcsMaximumAllowedPowerToDistribute() {
 
-        if (evcsCluster == null) {
+        if (evcsClustersByPriority.length == 0) {
             logDebug("No evcs cluster defined.");
             getRunFailedChannel().setNextValue(true);
 
             return;
         }
 
-        IntegerReadChannel maximumAllowedPowerToDistributeChannel = evcsCluster.getMaximumAllowedPowerToDistributeChannel();
-        maximumAllowedPowerToDistributeChannel.setNextValue(null);
+        for (ManagedEvcsCluster evcsCluster : evcsClustersByPriority) {
+            IntegerReadChannel maximumAllowedPowerToDistributeChannel = evcsCluster.getMaximumAllowedPowerToDistributeChannel();
+            maximumAllowedPowerToDistributeChannel.setNextValue(null);
+        }
     }
 
     private void checkEvcsMaximumAllowedPowerToDistribute() {
 
-        if (evcsCluster == null) {
+        if (evcsClustersByPriority.length == 0) {
             logDebug("No evcs cluster defined.");
             getRunFailedChannel().setNextValue(true);
 
             return;
         }
 
-        logDebug("checkEvcsMaximumAllowedPowerToDistribute evcsClusterMaximumAllowedPowerToDistribute " + evcsClusterMaximumAllowedPowerToDistribute);
+        logDebug("checkEvcsMaximumAllowedPowerToDistribute evcsClusterMaximumAllowedPowerToDistribute {}", evcsClusterMaximumAllowedPowerToDistribute);
 
-        IntegerReadChannel maximumAllowedPowerToDistributeChannel = evcsCluster.getMaximumAllowedPowerToDistributeChannel();
-        Value<Integer> nextMaximumAllowedPowerToDistribute = maximumAllowedPowerToDistributeChannel.getNextValue();
-        logDebug("checkEvcsMaximumAllowedPowerToDistribute nextMaximumAllowedPowerToDistribute " + nextMaximumAllowedPowerToDistribute);
+        for (int i = 0; i < evcsClustersByPriority.length; i++) {
+            ManagedEvcsCluster evcsCluster = evcsClustersByPriority[i];
 
-        Integer maximumAllowedPowerToDistribute = null;
+            IntegerReadChannel maximumAllowedPowerToDistributeChannel = evcsCluster.getMaximumAllowedPowerToDistributeChannel();
+            Value<Integer> nextMaximumAllowedPowerToDistribute = maximumAllowedPowerToDistributeChannel.getNextValue();
+            logDebug("checkEvcsMaximumAllowedPowerToDistribute {} nextMaximumAllowedPowerToDistribute {}", evcsCluster.id(), nextMaximumAllowedPowerToDistribute);
 
-        if (evcsClusterMaximumAllowedPowerToDistribute.isPresent()) {
-            maximumAllowedPowerToDistribute = evcsClusterMaximumAllowedPowerToDistribute.get();
+            Integer maximumAllowedPowerToDistribute = null;
 
-            if (nextMaximumAllowedPowerToDistribute.isDefined()) {
-                maximumAllowedPowerToDistribute = Math.min(
-                    maximumAllowedPowerToDistribute,
-                    nextMaximumAllowedPowerToDistribute.get()
-                );
-            }
+            if (evcsClusterMaximumAllowedPowerToDistribute.isPresent()) {
+                maximumAllowedPowerToDistribute = evcsClusterDistribution.getLimit(i);
 
-        } else if (nextMaximumAllowedPowerToDistribute.isDefined()) {
-            maximumAllowedPowerToDistribute = nextMaximumAllowedPowerToDistribute.get();
-        }
+                if (nextMaximumAllowedPowerToDistribute.isDefined()) {
+                    maximumAllowedPowerToDistribute = Math.min(
+                        maximumAllowedPowerToDistribute,
+                        nextMaximumAllowedPowerToDistribute.get()
+                    );
+                }
 
-        logDebug("checkEvcsMaximumAllowedPowerToDistribute set maximumAllowedPowerToDistribute " + maximumAllowedPowerToDistribute);
-        maximumAllowedPowerToDistributeChannel.setNextValue(maximumAllowedPowerToDistribute);
+            } else if (nextMaximumAllowedPowerToDistribute.isDefined()) {
+                maximumAllowedPowerToDistribute = nextMaximumAllowedPowerToDistribute.get();
+            }
 
+            logDebug("checkEvcsMaximumAllowedPowerToDistribute {} set maximumAllowedPowerToDistribute {}", evcsCluster.id(), maximumAllowedPowerToDistribute);
+            maximumAllowedPowerToDistributeChannel.setNextValue(maximumAllowedPowerToDistribute);
+        }
     }
 
     private int determineGleichzeitigkeitsfaktor(int evcs) {
@@ -518,7 +785,7 @@ public class ControllerParagraph14aImpl extends AbstractOpenemsComponent
 
         logDebug("-EVCS cluster------");
 
-        if (evcsCluster == null) {
+        if (evcsClustersByPriority.length == 0) {
             logDebug("No evcs cluster defined.");
             logDebug("-------------------");
 
@@ -530,7 +797,13 @@ public class ControllerParagraph14aImpl extends AbstractOpenemsComponent
             return;
         }
 
-        int evcsCount = evcsCluster.getEvcsCount().orElse(0);
+        // every evcs is guaranteed pMin for a single evcs, so this is the demand per cluster
+        int evcsCount = 0;
+        for (int i = 0; i < evcsClustersByPriority.length; i++) {
+            int clusterEvcsCount = evcsClustersByPriority[i].getEvcsCount().orElse(0);
+            evcsClusterDistribution.setDemand(i, clusterEvcsCount * P_MIN_SINGLE_EVCS);
+            evcsCount += clusterEvcsCount;
+        }
         _setEvcsCount(evcsCount);
 
         if (ConsumptionManagment.FULL.equals(consumption)) {
@@ -539,34 +812,48 @@ public class ControllerParagraph14aImpl extends AbstractOpenemsComponent
 
             evcsClusterMaximumAllowedPowerToDistributeMean.clear();
             evcsClusterMaximumAllowedPowerToDistribute = Optional.empty();
+            evcsTargetLimit = null;
             _setEvcsClusterMaximumAllowedPowerToDistribute(null);
 
             return;
         }
 
-        int pvInverterActivePower = pvInverter.getActivePower().orElse(0);
-        logDebug("pvInverterActivePower " + pvInverterActivePower);
+        int pvInverterActivePower = 0;
+        if (pvInverters != null) {
+            for (int i = 0; i < pvInverters.size(); i++) {
+                pvInverterActivePower += pvInverters.get(i).getActivePower().orElse(0);
+            }
+        }
+        logDebug("pvInverterActivePower {}", pvInverterActivePower);
 
         int gridActivePower = gridMeter.getActivePower().orElse(0);
         int consumptionPower = (gridActivePower > 0) ? gridActivePower : 0;
         int productionPower = (gridActivePower < 0) ? gridActivePower * -1: 0;
-        logDebug("consumption " + consumptionPower + ", production " + productionPower + ", gridActivePower " + gridActivePower);
+        logDebug("consumption {}, production {}, gridActivePower {}", consumptionPower, productionPower, gridActivePower);
 
         // Berechnung der erlaubten Mindestleistung gemäß 
         // Anlage 1 BK-622-300 Bundesnetzagentur Abschnitt 4.5 Satz 4
         // Stand 27.11.2023
-        int pMin = 4200 + (evcsCount - 1) * determineGleichzeitigkeitsfaktor(evcsCount) * 42;
-        logDebug("pMin " + pMin);
+        int pMin = P_MIN_SINGLE_EVCS + (evcsCount - 1) * determineGleichzeitigkeitsfaktor(evcsCount) * 42;
+        logDebug("pMin {}", pMin);
 
         int maximumAllowedPowerToDistribute = switch(consumption) {
             case REDUCED -> pMin + pvInverterActivePower;
             case OFF -> pvInverterActivePower;
             default -> 0;
         };
-        logDebug("maximumAllowedPowerToDistribute " + maximumAllowedPowerToDistribute);
+        logDebug("maximumAllowedPowerToDistribute {}", maximumAllowedPowerToDistribute);
 
-        maximumAllowedPowerToDistribute = (int) evcsClusterMaximumAllowedPowerToDistributeMean.nextValue(maximumAllowedPowerToDistribute, 3, 1);
-        logDebug("maximumAllowedPowerToDistribute " + maximumAllowedPowerToDistribute);
+        evcsTargetLimit = maximumAllowedPowerToDistribute;
+
+        if (evcsFastPath) {
+            evcsClusterMaximumAllowedPowerToDistributeMean.clear();
+        }
+
+        maximumAllowedPowerToDistribute = evcsClusterMaximumAllowedPowerToDistributeMean.nextValue(maximumAllowedPowerToDistribute, 3, 1);
+        logDebug("maximumAllowedPowerToDistribute {}", maximumAllowedPowerToDistribute);
+
+        evcsClusterDistribution.distribute(maximumAllowedPowerToDistribute);
 
         evcsClusterMaximumAllowedPowerToDistribute = Optional.of(maximumAllowedPowerToDistribute);
         _setEvcsClusterMaximumAllowedPowerToDistribute(maximumAllowedPowerToDistribute);
@@ -574,4 +861,183 @@ public class ControllerParagraph14aImpl extends AbstractOpenemsComponent
         logDebug("-------------------");
     }
 
+
+    ////////////////////////////////////////////////////////////////////
+    //
+    // Trace
+    //
+    ////////////////////////////////////////////////////////////////////
+
+    private void traceCycle() {
+        if (cycleTrace == null) return;
+
+        cycleTrace.begin(System.currentTimeMillis());
+        cycleTrace.set(TRACE_PRODUCTION, production.getValue());
+        cycleTrace.set(TRACE_CONSUMPTION, consumption.getValue());
+        cycleTrace.set(TRACE_RELAIS, inputRelaisMask);
+        cycleTrace.set(TRACE_RELAIS_DEFINED, inputRelaisDefinedMask);
+        cycleTrace.set(TRACE_GRID_ACTIVE_POWER, gridMeter.getActivePower().get());
+        cycleTrace.set(TRACE_PVINVERTER_ACTIVE_POWER, this.<IntegerReadChannel>channel(ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER).getNextValue().get());
+        cycleTrace.set(TRACE_PVINVERTER_TARGET_LIMIT, pvInverterTargetLimit);
+        cycleTrace.set(TRACE_PVINVERTER_LIMIT, pvInverterActivePowerLimit.orElse(null));
+        cycleTrace.set(TRACE_EVCS_TARGET_LIMIT, evcsTargetLimit);
+        cycleTrace.set(TRACE_EVCS_LIMIT, evcsClusterMaximumAllowedPowerToDistribute.orElse(null));
+        cycleTrace.set(TRACE_RUN_FAILED, Boolean.TRUE.equals(getRunFailedChannel().getNextValue().get()));
+    }
+
+    private void dumpCycleTrace() {
+        if (cycleTrace == null) {
+            logWarn(log, "Cycle trace is disabled.");
+            return;
+        }
+
+        logInfo(log, "Cycle trace " + cycleTrace.toJson());
+    }
+
+
+    ////////////////////////////////////////////////////////////////////
+    //
+    // Recording
+    //
+    ////////////////////////////////////////////////////////////////////
+
+    private void openRecordFile(String recordFile) {
+        closeRecordFile();
+        if (recordFile == null || recordFile.isBlank()) return;
+
+        try {
+            recordFileWriter = new RecordFileWriter(Path.of(recordFile), CycleRecord.FIELD_COUNT);
+            logInfo(log, "Recording cycles to " + recordFile + ".");
+
+        } catch (IOException | RuntimeException ex) {
+            log.error("Could not open record file " + recordFile + ".", ex);
+            recordFileWriter = null;
+        }
+    }
+
+    private void closeRecordFile() {
+        if (recordFileWriter == null) return;
+
+        try {
+            recordFileWriter.close();
+
+        } catch (IOException ex) {
+            log.error("Could not close record file.", ex);
+        }
+
+        recordFileWriter = null;
+    }
+
+    private void recordCycle() {
+        if (recordFileWriter == null) return;
+
+        int pvInverterActivePower = RecordFileWriter.NULL;
+        int pvInverterMaxActivePower = RecordFileWriter.NULL;
+        if (pvInverters != null && !pvInverters.isEmpty()) {
+            int activePower = 0;
+            int maxActivePower = 0;
+            boolean defined = true;
+
+            for (int i = 0; i < pvInverters.size(); i++) {
+                ManagedSymmetricPvInverter pvInverter = pvInverters.get(i);
+                Value<Integer> activePowerValue = pvInverter.getActivePower();
+                Value<Integer> maxActivePowerValue = pvInverter.getMaxActivePower();
+
+                defined &= activePowerValue.isDefined() && maxActivePowerValue.isDefined();
+                activePower += activePowerValue.orElse(0);
+                maxActivePower += maxActivePowerValue.orElse(0);
+            }
+
+            if (defined) {
+                pvInverterActivePower = activePower;
+                pvInverterMaxActivePower = maxActivePower;
+            }
+        }
+
+        int evcsCount = 0;
+        for (ManagedEvcsCluster evcsCluster : evcsClustersByPriority) {
+            evcsCount += evcsCluster.getEvcsCount().orElse(0);
+        }
+
+        try {
+            recordFileWriter.begin(System.currentTimeMillis());
+
+        } catch (IOException ex) {
+            log.error("Could not record cycle, recording stopped.", ex);
+            closeRecordFile();
+            return;
+        }
+
+        recordFileWriter.set(CycleRecord.RELAIS, inputRelaisMask);
+        recordFileWriter.set(CycleRecord.RELAIS_DEFINED, inputRelaisDefinedMask);
+        recordFileWriter.set(CycleRecord.GRID_ACTIVE_POWER, gridMeter.getActivePower().get());
+        recordFileWriter.set(CycleRecord.GRID_ACTIVE_POWER_L1, gridMeter.getActivePowerL1().get());
+        recordFileWriter.set(CycleRecord.GRID_ACTIVE_POWER_L2, gridMeter.getActivePowerL2().get());
+        recordFileWriter.set(CycleRecord.GRID_ACTIVE_POWER_L3, gridMeter.getActivePowerL3().get());
+        recordFileWriter.set(CycleRecord.PVINVERTER_ACTIVE_POWER, pvInverterActivePower);
+        recordFileWriter.set(CycleRecord.PVINVERTER_MAX_ACTIVE_POWER, pvInverterMaxActivePower);
+        recordFileWriter.set(CycleRecord.EVCS_COUNT, evcsCount);
+    }
+
+
+    ////////////////////////////////////////////////////////////////////
+    //
+    // Latency
+    //
+    ////////////////////////////////////////////////////////////////////
+
+    // the edge clock, so latencies follow the time leaps in tests
+    private long clockNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(componentManager.getClock().millis());
+    }
+
+    // The latencies are measured against values the devices report back,
+    // never against the values written by this controller. For pv inverters
+    // this is the read value of the active power limit, e.g. the limit the
+    // SE9K reads back from the inverter. For evcs clusters it is the power
+    // of clusters that measure it, else no latency is recorded.
+    private void updateLimitLatencies() {
+        Integer pvInverterReportedLimit = null;
+        if (pvInverters != null && !pvInverters.isEmpty()) {
+            int sum = 0;
+            for (int i = 0; i < pvInverters.size(); i++) {
+                Integer limit = pvInverters.get(i).getActivePowerLimitChannel().value().get();
+                if (limit == null) {
+                    sum = -1;
+                    break;
+                }
+
+                sum += limit;
+            }
+
+            pvInverterReportedLimit = (sum < 0) ? null : sum;
+        }
+        pvInverterLimitLatency.update(pvInverterReportedLimit, pvInverterTargetLimit);
+
+        channel(ControllerParagraph14a.ChannelId.PVINVERTER_LIMIT_LATENCY_P50).setNextValue(pvInverterLimitLatency.getPercentile(50d));
+        channel(ControllerParagraph14a.ChannelId.PVINVERTER_LIMIT_LATENCY_P95).setNextValue(pvInverterLimitLatency.getPercentile(95d));
+        channel(ControllerParagraph14a.ChannelId.PVINVERTER_LIMIT_LATENCY_MAX).setNextValue(pvInverterLimitLatency.getMax());
+
+        Integer evcsReportedPower = null;
+        if (evcsClustersByPriority.length > 0) {
+            int sum = 0;
+            for (ManagedEvcsCluster evcsCluster : evcsClustersByPriority) {
+                Integer power = (evcsCluster instanceof ElectricityMeter meter) ? meter.getActivePower().get() : null;
+                if (power == null) {
+                    sum = -1;
+                    break;
+                }
+
+                sum += power;
+            }
+
+            evcsReportedPower = (sum < 0) ? null : sum;
+        }
+        evcsLimitLatency.update(evcsReportedPower, evcsTargetLimit);
+
+        channel(ControllerParagraph14a.ChannelId.EVCS_LIMIT_LATENCY_P50).setNextValue(evcsLimitLatency.getPercentile(50d));
+        channel(ControllerParagraph14a.ChannelId.EVCS_LIMIT_LATENCY_P95).setNextValue(evcsLimitLatency.getPercentile(95d));
+        channel(ControllerParagraph14a.ChannelId.EVCS_LIMIT_LATENCY_MAX).setNextValue(evcsLimitLatency.getMax());
+    }
+
 }
@@ -0,0 +1,46 @@
+/*
+ *   OpenEMS Paragraph 14a Controller
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.edge.controller.para14a;
+
+// Fields of a recorded cycle, the inputs of the controller. Shared by
+// the recorder in the controller and the replay runner in the tests.
+// Several pv inverters or evcs clusters are recorded as their sum.
+
+final class CycleRecord {
+
+    static final int RELAIS = 0;
+    static final int RELAIS_DEFINED = 1;
+    static final int GRID_ACTIVE_POWER = 2;
+    static final int GRID_ACTIVE_POWER_L1 = 3;
+    static final int GRID_ACTIVE_POWER_L2 = 4;
+    static final int GRID_ACTIVE_POWER_L3 = 5;
+    static final int PVINVERTER_ACTIVE_POWER = 6;
+    static final int PVINVERTER_MAX_ACTIVE_POWER = 7;
+    static final int EVCS_COUNT = 8;
+
+    static final int FIELD_COUNT = 9;
+
+    private CycleRecord() {
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ *   OpenEMS Paragraph 14a Controller
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.edge.controller.para14a;
+
+// How the pv inverter limit follows the allowed grid export.
+
+public enum LimitControlMode {
+
+    FILTER,                        // max * factor + grid + pv, smoothed by the configured filter
+    PID                            // PID controller on the grid export with pv power as feed forward
+
+    ;
+}
@@ -0,0 +1,113 @@
+/*
+ *   OpenEMS Paragraph 14a Controller
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.edge.controller.para14a;
+
+// Splits a total limit across several inverters, proportional to their max
+// active power or their current production. Uses primitive arrays sized
+// once, so distributing is O(n) and allocation free.
+//
+// Rounding is cumulative, so the limits always sum up to the total. No
+// inverter gets more than its max active power, the excess is given to
+// inverters with headroom left.
+
+class LimitDistribution {
+
+    // an idle inverter still gets a share, so it is able to start producing
+    private static final int MIN_ACTIVE_POWER_SHARE_PERCENT = 10;
+
+    private final int[] maxActivePowers;
+    private final int[] activePowers;
+    private final int[] limits;
+
+    public LimitDistribution(int size) {
+        this.maxActivePowers = new int[size];
+        this.activePowers = new int[size];
+        this.limits = new int[size];
+    }
+
+    public int size() {
+        return limits.length;
+    }
+
+    public void set(int index, int maxActivePower, int activePower) {
+        maxActivePowers[index] = Math.max(0, maxActivePower);
+        activePowers[index] = Math.max(0, activePower);
+    }
+
+    public int getLimit(int index) {
+        return limits[index];
+    }
+
+    private long weight(int index, PvInverterSplitMode splitMode) {
+        int maxActivePower = maxActivePowers[index];
+
+        return switch (splitMode) {
+            case MAX_ACTIVE_POWER -> maxActivePower;
+            case ACTIVE_POWER -> Math.max(
+                Math.min(activePowers[index], maxActivePower),
+                maxActivePower * MIN_ACTIVE_POWER_SHARE_PERCENT / 100
+            );
+        };
+    }
+
+    public void distribute(int totalLimit, PvInverterSplitMode splitMode) {
+        int size = limits.length;
+        if (size == 0) return;
+
+        long total = Math.max(0, totalLimit);
+
+        long weightSum = 0;
+        for (int i = 0; i < size; i++) {
+            weightSum += weight(i, splitMode);
+        }
+
+        // split proportional, equal if there is nothing to weight
+        long cumulatedWeight = 0;
+        long previousBound = 0;
+        long excess = 0;
+        for (int i = 0; i < size; i++) {
+            cumulatedWeight += (weightSum > 0) ? weight(i, splitMode) : 1;
+            long bound = total * cumulatedWeight / ((weightSum > 0) ? weightSum : size);
+
+            int limit = (int) (bound - previousBound);
+            previousBound = bound;
+
+            if (limit > maxActivePowers[i]) {
+                excess += limit - maxActivePowers[i];
+                limit = maxActivePowers[i];
+            }
+
+            limits[i] = limit;
+        }
+
+        for (int i = 0; i < size && excess > 0; i++) {
+            int headroom = maxActivePowers[i] - limits[i];
+            if (headroom <= 0) continue;
+
+            int add = (int) Math.min(excess, headroom);
+            limits[i] += add;
+            excess -= add;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *   OpenEMS Paragraph 14a Controller
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.edge.controller.para14a;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+import de.poulter.openems.lib.statistics.TimeWindowStatistics;
+
+// Measures the time from a change to a stricter managment until the value
+// reported back by the device, the limit applied by the pv inverter or the
+// power of the evcs cluster, is at or below the target limit. The target
+// of the first cycle after the change is latched, later targets follow the
+// grid power and would move the goal while waiting. Latencies of the last
+// week are kept in a histogram with 100 ms buckets, transitions that do
+// not reach the limit within the timeout are recorded with the timeout
+// value.
+
+class LimitLatency {
+
+    private static final Duration HORIZON = Duration.ofDays(7);
+    private static final int CAPACITY = 1024;
+    private static final long TIMEOUT_MILLIS = Duration.ofMinutes(15).toMillis();
+    private static final int BUCKETS = 1200;
+
+    // reported limits this close above the target count as reached
+    private static final int TOLERANCE = 100;
+
+    private final TimeWindowStatistics statistics = new TimeWindowStatistics(HORIZON, CAPACITY, 0d, 120_000d, BUCKETS);
+    private final LongSupplier clock;
+
+    private boolean pending;
+    private long transitionTime;
+    private Integer latchedTargetLimit;
+
+    public LimitLatency() {
+        this(System::nanoTime);
+    }
+
+    public LimitLatency(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    // a stricter managment is active from now on
+    public void start() {
+        pending = true;
+        transitionTime = clock.getAsLong();
+        latchedTargetLimit = null;
+    }
+
+    // the managment got less strict before the limit was reached
+    public void cancel() {
+        pending = false;
+    }
+
+    public boolean isPending() {
+        return pending;
+    }
+
+    public void update(Integer reportedLimit, Integer targetLimit) {
+        long now = clock.getAsLong();
+        statistics.evict(now);
+
+        if (!pending) return;
+
+        long latency = Duration.ofNanos(now - transitionTime).toMillis();
+        if (latency >= TIMEOUT_MILLIS) {
+            pending = false;
+            statistics.addValue(now, TIMEOUT_MILLIS);
+            return;
+        }
+
+        if (latchedTargetLimit == null) {
+            latchedTargetLimit = targetLimit;
+        }
+
+        if (reportedLimit == null || latchedTargetLimit == null) return;
+        if (reportedLimit > latchedTargetLimit + TOLERANCE) return;
+
+        pending = false;
+        statistics.addValue(now, latency);
+    }
+
+    public Integer getPercentile(double percentile) {
+        if (statistics.isEmpty()) return null;
+
+        return (int) Math.round(statistics.getPercentile(percentile));
+    }
+
+    public Integer getMax() {
+        if (statistics.isEmpty()) return null;
+
+        return (int) Math.round(statistics.getMax());
+    }
+}
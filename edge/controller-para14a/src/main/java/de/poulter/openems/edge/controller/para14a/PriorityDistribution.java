@@ -0,0 +1,86 @@
+/*
+ *   OpenEMS Paragraph 14a Controller
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.edge.controller.para14a;
+
+// Splits a power budget across several consumers by priority, index 0 has
+// the highest priority. First every consumer gets up to its demand in
+// priority order, then whatever is left is split proportional to the
+// demands. Uses primitive arrays sized once, so distributing is O(n) and
+// allocation free.
+
+class PriorityDistribution {
+
+    private final int[] demands;
+    private final int[] limits;
+
+    public PriorityDistribution(int size) {
+        this.demands = new int[size];
+        this.limits = new int[size];
+    }
+
+    public int size() {
+        return limits.length;
+    }
+
+    public void setDemand(int index, int demand) {
+        demands[index] = Math.max(0, demand);
+    }
+
+    public int getLimit(int index) {
+        return limits[index];
+    }
+
+    public void distribute(int budget) {
+        int size = limits.length;
+        if (size == 0) return;
+
+        long remaining = Math.max(0, budget);
+        long demandSum = 0;
+
+        for (int i = 0; i < size; i++) {
+            int limit = (int) Math.min(remaining, demands[i]);
+            limits[i] = limit;
+            remaining -= limit;
+            demandSum += demands[i];
+        }
+
+        if (remaining == 0) return;
+
+        if (demandSum == 0) {
+            limits[0] += (int) remaining;
+            return;
+        }
+
+        // cumulative rounding, so nothing of the budget gets lost
+        long cumulatedDemand = 0;
+        long previousBound = 0;
+        for (int i = 0; i < size; i++) {
+            cumulatedDemand += demands[i];
+            long bound = remaining * cumulatedDemand / demandSum;
+
+            limits[i] += (int) (bound - previousBound);
+            previousBound = bound;
+        }
+    }
+}
@@ -27,22 +27,28 @@ import io.openems.common.types.OptionsEnum;
 
 public enum ProductionManagment implements OptionsEnum {
 
-    FULL     (3, "No limit",    100, false),    // E2=0, E1=0
-    REDUCED60(2, "Reduced 60%",  60, true),     // E2=0, E1=1
-    REDUCED30(1, "Reduced 30%",  30, true),     // E2=1, E1=0
-    OFF      (0, "off",           0, true)      // E2=1, E1=1
+    FULL     (3, "No limit",    100, false, 0),    // E2=0, E1=0
+    REDUCED60(2, "Reduced 60%",  60, true,  1),    // E2=0, E1=1
+    REDUCED30(1, "Reduced 30%",  30, true,  2),    // E2=1, E1=0
+    OFF      (0, "off",           0, true,  3)     // E2=1, E1=1
     ;
 
     private final int value;
     private final String name;
     private int factor;
     private boolean applyThreshold;
+    private final int severity;
 
-    ProductionManagment(int value, String name, int factor, boolean applyThreshold) {
+    ProductionManagment(int value, String name, int factor, boolean applyThreshold, int severity) {
         this.value = value;
         this.name = name;
         this.factor = factor;
         this.applyThreshold = applyThreshold;
+        this.severity = severity;
+    }
+
+    public boolean isStricterThan(ProductionManagment other) {
+        return severity > other.severity;
     }
 
     public int getFactor() {
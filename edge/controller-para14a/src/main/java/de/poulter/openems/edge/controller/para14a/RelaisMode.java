@@ -23,21 +23,99 @@
 
 package de.poulter.openems.edge.controller.para14a;
 
+import java.util.function.IntFunction;
+
 // Relaissteuerungsverfahren gemäß VDE FNN, hierbei
 // werden 4 Relais benutzt, deren Bedeutung je nach
 // Belegung unterschiedlich sein kann.
+//
+// The relais inputs are packed into a 4 bit mask, relais 1 is bit 0. Each
+// mode precomputes the production and consumption managment for all 16
+// masks. If one of the inputs required for production or consumption is
+// undefined, the managment is OFF.
 
 public enum RelaisMode {
 
-    None,                          // kein Anschluss
-    FNN2bit1StbV,                  // FNN2bit für 1 Verbraucher
-    FNN2bit2StbV,                  // FNN2bit für 2 Verbraucher
-    FNN2bit1StbE,                  // FNN2bit für 1 Erzeuger
-    FNN2bit2StbE,                  // FNN2bit für 2 Erzeuger
-    FNN2bit1StbV1StbE,             // FNN2bit für 1 Verbraucher und 1 Erzeuger
-    DreiRelais1StbE,               // 3 Relais 0%, 30%, 60% für 1 Erzeuger
-    VierRelais1StbE,               // 4 Relais 0%, 30%, 60%, 100% für 1 Erzeuger
-    Einzelkontakt4StbV             // 4 Relais Einzelkontakte für 4 Verbraucher
+    // kein Anschluss
+    None(0b0000, 0b0000,
+        mask -> ProductionManagment.OFF,
+        mask -> ConsumptionManagment.OFF),
+
+    // FNN2bit für 1 Verbraucher
+    FNN2bit1StbV(0b0000, 0b0011,
+        mask -> ProductionManagment.OFF,
+        mask -> ConsumptionManagment.getForInputs(isSet(mask, 0), isSet(mask, 1))),
+
+    // FNN2bit für 2 Verbraucher
+    FNN2bit2StbV(0b0000, 0b0011,
+        mask -> ProductionManagment.OFF,
+        mask -> ConsumptionManagment.getForInputs(isSet(mask, 0), isSet(mask, 1))),
+
+    // FNN2bit für 1 Erzeuger
+    FNN2bit1StbE(0b0011, 0b0000,
+        mask -> ProductionManagment.getForInputs(isSet(mask, 0), isSet(mask, 1)),
+        mask -> ConsumptionManagment.OFF),
+
+    // FNN2bit für 2 Erzeuger
+    FNN2bit2StbE(0b0011, 0b0000,
+        mask -> ProductionManagment.getForInputs(isSet(mask, 0), isSet(mask, 1)),
+        mask -> ConsumptionManagment.OFF),
+
+    // FNN2bit für 1 Verbraucher und 1 Erzeuger
+    FNN2bit1StbV1StbE(0b1100, 0b0011,
+        mask -> ProductionManagment.getForInputs(isSet(mask, 2), isSet(mask, 3)),
+        mask -> ConsumptionManagment.getForInputs(isSet(mask, 0), isSet(mask, 1))),
+
+    // 3 Relais 0%, 30%, 60% für 1 Erzeuger
+    DreiRelais1StbE(0b0111, 0b0000,
+        mask -> ProductionManagment.getForInputs(isSet(mask, 0), isSet(mask, 1), isSet(mask, 2)),
+        mask -> ConsumptionManagment.OFF),
+
+    // 4 Relais 0%, 30%, 60%, 100% für 1 Erzeuger
+    VierRelais1StbE(0b1111, 0b0000,
+        mask -> ProductionManagment.getForInputs(isSet(mask, 0), isSet(mask, 1), isSet(mask, 2), isSet(mask, 3)),
+        mask -> ConsumptionManagment.OFF),
+
+    // 4 Relais Einzelkontakte für 4 Verbraucher
+    Einzelkontakt4StbV(0b0000, 0b0001,
+        mask -> ProductionManagment.OFF,
+        mask -> ConsumptionManagment.getForInput(isSet(mask, 0)))
 
     ;
+
+    private final int productionInputs;
+    private final int consumptionInputs;
+    private final ProductionManagment[] production = new ProductionManagment[16];
+    private final ConsumptionManagment[] consumption = new ConsumptionManagment[16];
+
+    RelaisMode(int productionInputs, int consumptionInputs, IntFunction<ProductionManagment> productionDecoder, IntFunction<ConsumptionManagment> consumptionDecoder) {
+        this.productionInputs = productionInputs;
+        this.consumptionInputs = consumptionInputs;
+
+        for (int mask = 0; mask < 16; mask++) {
+            production[mask] = productionDecoder.apply(mask);
+            consumption[mask] = consumptionDecoder.apply(mask);
+        }
+    }
+
+    private static boolean isSet(int mask, int input) {
+        return (mask & (1 << input)) != 0;
+    }
+
+    // number of relais inputs evaluated, starting with relais 1
+    public int getInputCount() {
+        return 32 - Integer.numberOfLeadingZeros(productionInputs | consumptionInputs);
+    }
+
+    public ProductionManagment getProduction(int inputs, int defined) {
+        if ((defined & productionInputs) != productionInputs) return ProductionManagment.OFF;
+
+        return production[inputs & 0b1111];
+    }
+
+    public ConsumptionManagment getConsumption(int inputs, int defined) {
+        if ((defined & consumptionInputs) != consumptionInputs) return ConsumptionManagment.OFF;
+
+        return consumption[inputs & 0b1111];
+    }
 }
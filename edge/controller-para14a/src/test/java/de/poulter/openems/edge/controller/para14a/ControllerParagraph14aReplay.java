@@ -0,0 +1,125 @@
+/*
+ *   OpenEMS Paragraph 14a Controller
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.edge.controller.para14a;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import de.poulter.openems.lib.trace.RecordFileReader;
+import de.poulter.openems.lib.trace.RecordFileWriter;
+import io.openems.common.test.DummyConfigurationAdmin;
+import io.openems.edge.common.test.AbstractComponentTest.TestCase;
+import io.openems.edge.common.test.DummyComponentManager;
+import io.openems.edge.controller.test.ControllerTest;
+import io.openems.edge.evcs.api.ManagedEvcsCluster;
+import io.openems.edge.io.test.DummyInputOutput;
+import io.openems.edge.meter.api.ElectricityMeter;
+import io.openems.edge.meter.test.DummyElectricityMeter;
+import io.openems.edge.pvinverter.api.ManagedSymmetricPvInverter;
+import io.openems.edge.pvinverter.test.DummyManagedSymmetricPvInverter;
+
+// Replays a file recorded by the controller through the controller with
+// dummy components, one cycle per record, and writes the resulting
+// limits of every cycle to a record file with the fields below. So a
+// recorded day can be evaluated with other settings within seconds.
+// Latencies are measured in replay time and are meaningless here.
+
+public class ControllerParagraph14aReplay {
+
+    public static final int PVINVERTER_LIMIT = 0;
+    public static final int EVCS_LIMIT = 1;
+    public static final int FIELD_COUNT = 2;
+
+    private static final DummyInputOutput.ChannelId[] INPUT_RELAIS = {
+        DummyInputOutput.ChannelId.INPUT_OUTPUT0,
+        DummyInputOutput.ChannelId.INPUT_OUTPUT1,
+        DummyInputOutput.ChannelId.INPUT_OUTPUT2,
+        DummyInputOutput.ChannelId.INPUT_OUTPUT3
+    };
+
+    private ControllerParagraph14aReplay() {
+    }
+
+    public static int replay(Path recordFile, Path limitFile, MyConfig.Builder config) throws Exception {
+        DummyManagedSymmetricPvInverter pvInverter0 = new DummyManagedSymmetricPvInverter("pvInverter0");
+        DummyEvcsClusterPeakShaving evcsCluster0 = new DummyEvcsClusterPeakShaving("evcsCluster0");
+
+        ControllerParagraph14aImpl sut = new ControllerParagraph14aImpl();
+        ControllerTest test = new ControllerTest(sut)
+                .addReference("cm", new DummyConfigurationAdmin())
+                .addReference("pvInverters", List.of(pvInverter0))
+                .addComponent(pvInverter0)
+                .addReference("evcsClusters", List.of(evcsCluster0))
+                .addComponent(evcsCluster0)
+                .addReference("gridMeter", new DummyElectricityMeter("meter0"))
+                .addReference("componentManager", new DummyComponentManager())
+                .addComponent(new DummyInputOutput("io0"))
+                .activate(config
+                        .setId("ctrlParagraph14a0")
+                        .setInputRelaisId1("io0/InputOutput0")
+                        .setInputRelaisId2("io0/InputOutput1")
+                        .setInputRelaisId3("io0/InputOutput2")
+                        .setInputRelaisId4("io0/InputOutput3")
+                        .setGridMeterId("meter0")
+                        .setPvInverterId("pvInverter0")
+                        .setEvcsClusterId("evcsCluster0")
+                        .build()
+                );
+
+        try (RecordFileReader reader = new RecordFileReader(recordFile);
+             RecordFileWriter writer = new RecordFileWriter(limitFile, FIELD_COUNT)) {
+
+            for (int i = 0; i < reader.size(); i++) {
+                TestCase testCase = new TestCase();
+
+                int relais = reader.getInt(i, CycleRecord.RELAIS);
+                int relaisDefined = reader.getInt(i, CycleRecord.RELAIS_DEFINED);
+                for (int r = 0; r < INPUT_RELAIS.length; r++) {
+                    Boolean value = ((relaisDefined & (1 << r)) == 0) ? null : (relais & (1 << r)) != 0;
+                    testCase.input("io0", INPUT_RELAIS[r], value);
+                }
+
+                testCase
+                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, reader.getValue(i, CycleRecord.GRID_ACTIVE_POWER))
+                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER_L1, reader.getValue(i, CycleRecord.GRID_ACTIVE_POWER_L1))
+                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER_L2, reader.getValue(i, CycleRecord.GRID_ACTIVE_POWER_L2))
+                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER_L3, reader.getValue(i, CycleRecord.GRID_ACTIVE_POWER_L3))
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, reader.getValue(i, CycleRecord.PVINVERTER_ACTIVE_POWER))
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.MAX_ACTIVE_POWER, reader.getValue(i, CycleRecord.PVINVERTER_MAX_ACTIVE_POWER))
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                        .input("evcsCluster0", ManagedEvcsCluster.ChannelId.EVCS_COUNT, reader.getValue(i, CycleRecord.EVCS_COUNT));
+
+                test.next(testCase);
+
+                writer.begin(reader.getTimestamp(i));
+                writer.set(PVINVERTER_LIMIT, sut.getPvInverterActivePowerLimitChannel().getNextValue().get());
+                writer.set(EVCS_LIMIT, sut.getEvcsClusterMaximumAllowedPowerToDistributeChannel().getNextValue().get());
+            }
+
+            test.deactivate();
+
+            return reader.size();
+        }
+    }
+}
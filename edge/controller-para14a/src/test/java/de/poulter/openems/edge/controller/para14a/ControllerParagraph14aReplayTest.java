@@ -0,0 +1,97 @@
+/*
+ *   OpenEMS Paragraph 14a Controller
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.edge.controller.para14a;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.poulter.openems.lib.trace.RecordFileReader;
+import de.poulter.openems.lib.trace.RecordFileWriter;
+
+public class ControllerParagraph14aReplayTest {
+
+    private static final int FULL_CYCLES = 10;
+    private static final int REDUCED_CYCLES = 40;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    public void replayTest() throws Exception {
+        Path recordFile = tempDir.resolve("record.bin");
+        Path rerecordFile = tempDir.resolve("rerecord.bin");
+        Path limitFile = tempDir.resolve("limit.bin");
+
+        // no restriction first, then limit 60% by the fourth relais
+        try (RecordFileWriter writer = new RecordFileWriter(recordFile, CycleRecord.FIELD_COUNT)) {
+            for (int i = 0; i < FULL_CYCLES + REDUCED_CYCLES; i++) {
+                writer.begin(1000L * (i + 1));
+                writer.set(CycleRecord.RELAIS, (i < FULL_CYCLES) ? 0b0000 : 0b1000);
+                writer.set(CycleRecord.RELAIS_DEFINED, 0b1100);
+                writer.set(CycleRecord.GRID_ACTIVE_POWER, -3000);
+                writer.set(CycleRecord.PVINVERTER_ACTIVE_POWER, 4000);
+                writer.set(CycleRecord.PVINVERTER_MAX_ACTIVE_POWER, 20000);
+                writer.set(CycleRecord.EVCS_COUNT, 0);
+            }
+        }
+
+        int cycles = ControllerParagraph14aReplay.replay(recordFile, limitFile, MyConfig.create()
+                .setMode(RelaisMode.FNN2bit1StbV1StbE)
+                .setRecordFile(rerecordFile.toString())
+        );
+        assertEquals(FULL_CYCLES + REDUCED_CYCLES, cycles);
+
+        try (RecordFileReader reader = new RecordFileReader(limitFile)) {
+            assertEquals(cycles, reader.size());
+
+            for (int i = 0; i < cycles; i++) {
+                if (i < FULL_CYCLES) {
+                    assertNull(reader.getValue(i, ControllerParagraph14aReplay.PVINVERTER_LIMIT));
+
+                } else {
+                    assertNotNull(reader.getValue(i, ControllerParagraph14aReplay.PVINVERTER_LIMIT));
+                }
+            }
+        }
+
+        // the controller records the same inputs again
+        try (RecordFileReader reader = new RecordFileReader(recordFile);
+             RecordFileReader rerecord = new RecordFileReader(rerecordFile)) {
+
+            assertEquals(reader.size(), rerecord.size());
+
+            for (int i = 0; i < reader.size(); i++) {
+                for (int field = 0; field < CycleRecord.FIELD_COUNT; field++) {
+                    assertEquals(reader.getValue(i, field), rerecord.getValue(i, field));
+                }
+            }
+        }
+    }
+}
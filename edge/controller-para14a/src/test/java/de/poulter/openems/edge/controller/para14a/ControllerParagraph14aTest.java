@@ -23,12 +23,26 @@
 
 package de.poulter.openems.edge.controller.para14a;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
+import io.openems.common.exceptions.OpenemsException;
 import io.openems.common.test.DummyConfigurationAdmin;
+import io.openems.common.test.TimeLeapClock;
 import io.openems.edge.common.test.AbstractComponentTest.TestCase;
 import io.openems.edge.common.test.DummyComponentManager;
+import io.openems.edge.controller.api.Controller;
 import io.openems.edge.controller.test.ControllerTest;
+import io.openems.edge.evcs.api.ManagedEvcsCluster;
 import io.openems.edge.io.test.DummyInputOutput;
 import io.openems.edge.meter.api.ElectricityMeter;
 import io.openems.edge.meter.test.DummyElectricityMeter;
@@ -42,10 +56,13 @@ public class ControllerParagraph14aTest {
     @Test
     public void paragraph14a_pvInverterTest() throws Exception {
 
+        DummyManagedSymmetricPvInverter pvInverter0 = new DummyManagedSymmetricPvInverter("pvInverter0");
+
         ControllerParagraph14aImpl sut = new ControllerParagraph14aImpl();
         new ControllerTest(sut)
                 .addReference("cm", new DummyConfigurationAdmin())
-                .addReference("pvInverter", new DummyManagedSymmetricPvInverter("pvInverter0"))
+                .addReference("pvInverters", List.of(pvInverter0))
+                .addComponent(pvInverter0)
                 .addReference("gridMeter", new DummyElectricityMeter("meter0"))
                 .addReference("componentManager", new DummyComponentManager())
                 .addComponent(new DummyInputOutput("io0"))
@@ -247,351 +264,775 @@ public class ControllerParagraph14aTest {
 ////                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 20000)
                 ).deactivate();
     }
-//
-//
-//    @Test
-//    public void paragraph14a_twoPvInverterTest() throws Exception {
-//
-//        ControllerParagraph14aImpl sut = new ControllerParagraph14aImpl();
-//        new ControllerTest(sut)
-//                .addComponent(new DummyInputOutput("io0"))
-//                .addComponent(new DummyElectricityMeter("meter0"))
-//                .addComponent(new DummyManagedSymmetricPvInverter("pvInverter0"))
-//                .addComponent(new DummyManagedSymmetricPvInverter("pvInverter1"))
-//                .addReference("componentManager", new DummyComponentManager())
-//                .activate(MyConfig.create()
-//                        .setId("ctrlParagraph14a0")
-//                        .setMode(RelaisMode.FNN2bit1StbV1StbE)
-//                        .setInputRelaisId1("io0/InputOutput0")
-//                        .setInputRelaisId2("io0/InputOutput1")
-//                        .setInputRelaisId3("io0/InputOutput2")
-//                        .setInputRelaisId4("io0/InputOutput3")
-//                        .setGridmeterId("meter0")
-//                        .setPvInverterId("pvInverter0")
-//                        .build()
-//                ).next(new TestCase() // c 1000, p 4000, g -3000
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, false)
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 1000)
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 7000)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 13000)
-//
-//                // no limit
-//                ).next(new TestCase() // c 1000, p 4000, g -3000
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 7000)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 13000)
-//
-//                // limit 60%
-//                ).next(new TestCase() // c 1000, p 4000, g -3000
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, false)
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, true)
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 5775)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 10725)
-//                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 4550)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 8450)
-//                ).next(new TestCase() // c 9000, p 15000, g -6000
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 9000)
-//                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 7000)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 13000)
-//                ).next(new TestCase() // c 1000, p 13000, g -12000
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 7000)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 13000)
-//                ).next(new TestCase() // c 1100, p 13000, g -12000
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 1100)
-//                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 4585)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 8515)
-//
-//                // limit 30%
-//                ).next(new TestCase() // c 1000, p 4000, g -3000
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, true)
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 1000)
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 3517)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 6533)
-//                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 2450)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 4550)
-//                ).next(new TestCase() // c 950, p 13000, g -12050
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 950)
-//                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 2432)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 4518)
-//                ).next(new TestCase() // c 1100, p 13000, g -11900
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 1100)
-//                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 2485)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 4615)
-//
-//                // OFF
-//                ).next(new TestCase() // c 1000, p 4000, g -3000
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, true)
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, true)
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 1000)
-//                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 350)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 650)
-//                ).next(new TestCase() // c 950, p 13000, g -12050
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 950)
-//                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 332)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 618)
-//                ).next(new TestCase() // c 1100, p 13000, g -11900
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 1100)
-//                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 385)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 715)
-//
-//                // no limit
-//                ).next(new TestCase() // c 1100, p 13000, g -11900
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, false)
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 1000)
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 7000)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 13000)
-//                ).deactivate();
-//    }
-//
-//    @Test
-//    public void paragraph14a_pvInverterWithEvcsClusterTest() throws Exception {
-//
-//        ControllerParagraph14aImpl sut = new ControllerParagraph14aImpl();
-//        new ControllerTest(sut)
-//                .addComponent(new DummyInputOutput("io0"))
-//                .addComponent(new DummyElectricityMeter("meter0"))
-//                .addComponent(new DummyEvcsClusterPeakShaving("evcsCluster0"))
-//                .addComponent(new DummyManagedSymmetricPvInverter("pvInverter0"))
-//                .addComponent(new DummyManagedSymmetricPvInverter("pvInverter1"))
-//                .addReference("componentManager", new DummyComponentManager())
-//                .activate(MyConfig.create()
-//                        .setId("ctrlParagraph14a0")
-//                        .setMode(RelaisMode.FNN2bit1StbV1StbE)
-//                        .setInputRelaisId1("io0/InputOutput0")
-//                        .setInputRelaisId2("io0/InputOutput1")
-//                        .setInputRelaisId3("io0/InputOutput2")
-//                        .setInputRelaisId4("io0/InputOutput3")
-//                        .setGridmeterId("meter0")
-//                        .setPvInverterId("pvInverter0")
-//                        .setEvcsIds(new String[]{"evcsCluster0"})
-//                        .build()
-//                ).next(new TestCase()
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT0, false)
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, false)
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, false)
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 1000)
-//                        .input("evcsCluster0", ElectricityMeter.ChannelId.ACTIVE_POWER, 0)
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 10000)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT,  5000)
-//
-//                // limit 30%
-//                ).next(new TestCase()
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, true)
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
-//                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 3667)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 1833)
-//                ).next(new TestCase()
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 1223)
-//                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()                        
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 3815)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 1907)
-//                ).next(new TestCase()
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 1200)
-//                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 3800)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 1900)
-//                ).next(new TestCase()
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 1160)
-//                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 3774)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 1887)
-//                ).next(new TestCase()
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 900)
-//                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 3600)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 1800)
-//                ).next(new TestCase()
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 0)
-//                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 3000)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 1500)
-//
-//                // off
-//                ).next(new TestCase()
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, true)
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, true)
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 1000)
-//                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 667)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 333)
-//                ).next(new TestCase()
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 14900)
-//                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 9933)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 4966)
-//
-//                // no limit
-//                ).next(new TestCase()
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, false)
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 14900)
-//                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
-//                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 10000)
-//                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 5000)                        
-//                ).deactivate();
-//    }
-//
-//    @Test
-//    public void paragraph14a_simpleEvcsClusterTest() throws Exception {
-//
-//        ControllerParagraph14aImpl sut = new ControllerParagraph14aImpl();
-//        new ControllerTest(sut)
-//                .addComponent(new DummyInputOutput("io0"))
-//                .addComponent(new DummyElectricityMeter("meter0"))
-//                .addComponent(new DummyManagedSymmetricPvInverter("pvInverter0"))
-//                .addComponent(new DummyEvcsClusterPeakShaving("evcsCluster0"))
-//                .addReference("componentManager", new DummyComponentManager())
-//                .activate(MyConfig.create()
-//                        .setId("ctrlParagraph14a0")
-//                        .setMode(RelaisMode.FNN2bit1StbV1StbE)
-//                        .setInputRelaisId1("io0/InputOutput0")
-//                        .setInputRelaisId2("io0/InputOutput1")
-//                        .setInputRelaisId3("io0/InputOutput2")
-//                        .setInputRelaisId4("io0/InputOutput3")
-//                        .setGridmeterId("meter0")
-//                        .setPvInverterId("pvInverter0")
-//                        .setEvcsIds(new String[]{"evcsCluster0"})
-//                        .build()
-//
-//                // no limit
-//                ).next(new TestCase()
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT0, false)
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, false)
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 0)
-//                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 0)
-//                        .input("evcsCluster0", ElectricityMeter.ChannelId.ACTIVE_POWER, 0)
-//                        .input("evcsCluster0", ManagedEvcsCluster.ChannelId.EVCS_COUNT, 2)
-//                        .output(ControllerParagraph14a.ChannelId.CONSUMPTION_MANAGEMENT, ConsumptionManagment.FULL)
-//                        .output(ControllerParagraph14a.ChannelId.EVCS_COUNT, 2)
-//                        .output(ControllerParagraph14a.ChannelId.EVCS_CLUSTERS_ALLOWED_POWER, -1)
-//                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, -1)
-//
-//                // shut off
-//                ).next(new TestCase()
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT0, true)
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, true)
-//                        .output(ControllerParagraph14a.ChannelId.CONSUMPTION_MANAGEMENT, ConsumptionManagment.OFF)
-//                        .output(ControllerParagraph14a.ChannelId.EVCS_CLUSTERS_ALLOWED_POWER, 0)
-//                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 0)
-//                ).next(new TestCase()
-//                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 5000)
-//                        .output(ControllerParagraph14a.ChannelId.CONSUMPTION_MANAGEMENT, ConsumptionManagment.OFF)
-//                        .output(ControllerParagraph14a.ChannelId.EVCS_CLUSTERS_ALLOWED_POWER, 5000)
-//                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 5000)
-//
-//                // unused state
-//                ).next(new TestCase()
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT0, true)
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, false)
-//                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 0)
-//                        .output(ControllerParagraph14a.ChannelId.CONSUMPTION_MANAGEMENT, ConsumptionManagment.UNUSED)
-//                        .output(ControllerParagraph14a.ChannelId.EVCS_CLUSTERS_ALLOWED_POWER, 0)
-//                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 0)
-//
-//                // scale down
-//                ).next(new TestCase()
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT0, false)
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, true)
-//                        .output(ControllerParagraph14a.ChannelId.CONSUMPTION_MANAGEMENT, ConsumptionManagment.REDUCED)
-//                        .output(ControllerParagraph14a.ChannelId.EVCS_CLUSTERS_ALLOWED_POWER, 7560)
-//                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 7560)
-//                ).next(new TestCase()
-//                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 3000)
-//                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 10560)
-//                );
-//    }
-//
-//    @Test
-//    public void paragraph14a_multipleEvcsClusterTest() throws Exception {
-//
-//        ControllerParagraph14aImpl sut = new ControllerParagraph14aImpl();
-//        new ControllerTest(sut)
-//                .addComponent(new DummyInputOutput("io0"))
-//                .addComponent(new DummyElectricityMeter("meter0"))
-//                .addComponent(new DummyEvcsClusterPeakShaving("evcsCluster0"))
-//                .addComponent(new DummyEvcsClusterPeakShaving("evcsCluster1"))
-//                .addComponent(new DummyManagedSymmetricPvInverter("pvInverter0"))
-//                .addComponent(new DummyManagedSymmetricPvInverter("pvInverter1"))
-//                .addReference("componentManager", new DummyComponentManager())
-//                .activate(MyConfig.create()
-//                        .setId("ctrlParagraph14a0")
-//                        .setMode(RelaisMode.FNN2bit1StbV1StbE)
-//                        .setInputRelaisId1("io0/InputOutput0")
-//                        .setInputRelaisId2("io0/InputOutput1")
-//                        .setInputRelaisId3("io0/InputOutput2")
-//                        .setInputRelaisId4("io0/InputOutput3")
-//                        .setGridmeterId("meter0")
-//                        .setPvInverterId("pvInverter0")
-//                        .setEvcsIds(new String[]{"evcsCluster0", "evcsCluster1"})
-//                        .build()
-//
-//                // no limit
-//                ).next(new TestCase()
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT0, false)
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, false)
-//                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 0)
-//                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 0)
-//                        .input("pvInverter1", ElectricityMeter.ChannelId.ACTIVE_POWER, 0)
-//                        .input("evcsCluster0", ElectricityMeter.ChannelId.ACTIVE_POWER, 0)
-//                        .input("evcsCluster0", ManagedEvcsCluster.ChannelId.EVCS_COUNT, 2)
-//                        .input("evcsCluster1", ElectricityMeter.ChannelId.ACTIVE_POWER, 0)
-//                        .input("evcsCluster1", ManagedEvcsCluster.ChannelId.EVCS_COUNT, 3)
-//                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, -1)
-//                        .output("evcsCluster1", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, -1)
-//                        .output(ControllerParagraph14a.ChannelId.EVCS_COUNT, 5)
-//                        .output(ControllerParagraph14a.ChannelId.EVCS_CLUSTERS_ALLOWED_POWER, -1)
-//
-//                // scale down
-//                ).next(new TestCase()
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT0, false)
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, true)
-//                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 7560)
-//                        .output("evcsCluster1", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 7560)
-//                        .output(ControllerParagraph14a.ChannelId.EVCS_CLUSTERS_ALLOWED_POWER, 15120)
-//                ).next(new TestCase()
-//                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 3000)
-//                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 9060)
-//                        .output("evcsCluster1", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 9060)
-//                        .output(ControllerParagraph14a.ChannelId.EVCS_CLUSTERS_ALLOWED_POWER, 18120)
-//                ).next(new TestCase()
-//                        .input("evcsCluster0", ElectricityMeter.ChannelId.ACTIVE_POWER, 12000)
-//                        .input("evcsCluster1", ElectricityMeter.ChannelId.ACTIVE_POWER, 5000)
-//                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 12560)
-//                        .output("evcsCluster1", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 5560)
-//                        .output(ControllerParagraph14a.ChannelId.EVCS_CLUSTERS_ALLOWED_POWER, 18120)
-//                ).next(new TestCase()
-//                        .input("evcsCluster0", ElectricityMeter.ChannelId.ACTIVE_POWER, 12000)
-//                        .input("evcsCluster1", ElectricityMeter.ChannelId.ACTIVE_POWER, 11000)
-//                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 12000)
-//                        .output("evcsCluster1", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 6120)
-//                        .output(ControllerParagraph14a.ChannelId.EVCS_CLUSTERS_ALLOWED_POWER, 18120)
-//                ).next(new TestCase()
-//                        .input("evcsCluster0", ElectricityMeter.ChannelId.ACTIVE_POWER, 20000)
-//                        .input("evcsCluster1", ElectricityMeter.ChannelId.ACTIVE_POWER, 11000)
-//                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 18120)
-//                        .output("evcsCluster1", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 0)
-//                        .output(ControllerParagraph14a.ChannelId.EVCS_CLUSTERS_ALLOWED_POWER, 18120)
-//                ).next(new TestCase()
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT0, false)
-//                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, false)
-//                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, -1)
-//                        .output("evcsCluster1", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, -1)
-//                        .output(ControllerParagraph14a.ChannelId.EVCS_CLUSTERS_ALLOWED_POWER, -1)
-//                );
-//    }
-//
+
+    @Test
+    public void paragraph14a_noPvInverterIdTest() throws Exception {
+
+        // neither ids nor the single id, the filter would bind every inverter
+        MyConfig config = MyConfig.create()
+                .setId("ctrlParagraph14a0")
+                .setGridMeterId("meter0")
+                .setEvcsClusterId("evcsCluster0")
+                .build();
+
+        assertThrows(OpenemsException.class,
+                () -> ControllerParagraph14aImpl.requiredIds(config.pvInverter_ids(), config.pvInverter_id(), "PvInverter"));
+    }
+
+    @Test
+    public void paragraph14a_unbalancedPhasesTest() throws Exception {
+
+        DummyElectricityMeter meter0 = new DummyElectricityMeter("meter0");
+        DummyManagedSymmetricPvInverter pvInverter0 = new DummyManagedSymmetricPvInverter("pvInverter0");
+
+        ControllerParagraph14aImpl sut = new ControllerParagraph14aImpl();
+        new ControllerTest(sut)
+                .addReference("cm", new DummyConfigurationAdmin())
+                .addReference("pvInverters", List.of(pvInverter0))
+                .addComponent(pvInverter0)
+                .addReference("gridMeter", meter0)
+                .addComponent(meter0)
+                .addReference("componentManager", new DummyComponentManager())
+                .addComponent(new DummyInputOutput("io0"))
+                .activate(MyConfig.create()
+                        .setId("ctrlParagraph14a0")
+                        .setMode(RelaisMode.FNN2bit1StbV1StbE)
+                        .setInputRelaisId1("io0/InputOutput0")
+                        .setInputRelaisId2("io0/InputOutput1")
+                        .setInputRelaisId3("io0/InputOutput2")
+                        .setInputRelaisId4("io0/InputOutput3")
+                        .setGridMeterId("meter0")
+                        .setPvInverterId("pvInverter0")
+                        .setEvcsClusterId("evcsCluster0")
+                        .build()
+
+                // limit 60%, one phase exports most, the balance counts
+                ).next(new TestCase() // p 7500, g -1500 = -3000 + 1000 + 500
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, true)
+                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, -1500)
+                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER_L1, -3000)
+                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER_L2, 1000)
+                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER_L3, 500)
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 7500)
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.MAX_ACTIVE_POWER, 20000)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 18000)
+
+                // the same balance on other phases gives the same limit
+                ).next(new TestCase() // p 7500, g -1500 = 2000 - 1000 - 2500
+                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER_L1, 2000)
+                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER_L2, -1000)
+                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER_L3, -2500)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 18000)
+
+                // missing phase values are not needed
+                ).next(new TestCase()
+                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER_L1, null)
+                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER_L2, null)
+                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER_L3, null)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 18000)
+                ).deactivate();
+    }
+
+    @Test
+    public void paragraph14a_fastRelaisReactionTest() throws Exception {
+
+        DummyManagedSymmetricPvInverter pvInverter0 = new DummyManagedSymmetricPvInverter("pvInverter0");
+
+        ControllerParagraph14aImpl sut = new ControllerParagraph14aImpl();
+        new ControllerTest(sut)
+                .addReference("cm", new DummyConfigurationAdmin())
+                .addReference("pvInverters", List.of(pvInverter0))
+                .addComponent(pvInverter0)
+                .addReference("gridMeter", new DummyElectricityMeter("meter0"))
+                .addReference("componentManager", new DummyComponentManager())
+                .addComponent(new DummyInputOutput("io0"))
+                .activate(MyConfig.create()
+                        .setId("ctrlParagraph14a0")
+                        .setMode(RelaisMode.FNN2bit1StbV1StbE)
+                        .setInputRelaisId1("io0/InputOutput0")
+                        .setInputRelaisId2("io0/InputOutput1")
+                        .setInputRelaisId3("io0/InputOutput2")
+                        .setInputRelaisId4("io0/InputOutput3")
+                        .setFastRelaisReaction(true)
+                        .setGridMeterId("meter0")
+                        .setPvInverterId("pvInverter0")
+                        .setEvcsClusterId("evcsCluster0")
+                        .build()
+
+                // no limit
+                ).next(new TestCase() // c 7500, p 7500, g 0
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 7500)
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.MAX_ACTIVE_POWER, 20000)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, null)
+
+                // limit 60%
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, true)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 19500)
+
+                // limit 30%, stricter, so the target is applied without ramp
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, true)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 13500)
+                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 13500)
+
+                // limit 60%, less strict, so the limit is ramped up
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, true)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 14843)
+                ).deactivate();
+    }
+
+    @Test
+    public void paragraph14a_fastRelaisReactionFailedCycleTest() throws Exception {
+
+        DummyManagedSymmetricPvInverter pvInverter0 = new DummyManagedSymmetricPvInverter("pvInverter0");
+
+        ControllerParagraph14aImpl sut = new ControllerParagraph14aImpl();
+        new ControllerTest(sut)
+                .addReference("cm", new DummyConfigurationAdmin())
+                .addReference("pvInverters", List.of(pvInverter0))
+                .addComponent(pvInverter0)
+                .addReference("gridMeter", new DummyElectricityMeter("meter0"))
+                .addReference("componentManager", new DummyComponentManager())
+                .addComponent(new DummyInputOutput("io0"))
+                .activate(MyConfig.create()
+                        .setId("ctrlParagraph14a0")
+                        .setMode(RelaisMode.FNN2bit1StbV1StbE)
+                        .setInputRelaisId1("io0/InputOutput0")
+                        .setInputRelaisId2("io0/InputOutput1")
+                        .setInputRelaisId3("io0/InputOutput2")
+                        .setInputRelaisId4("io0/InputOutput3")
+                        .setFastRelaisReaction(true)
+                        .setGridMeterId("meter0")
+                        .setPvInverterId("pvInverter0")
+                        .setEvcsClusterId("evcsCluster0")
+                        .build()
+
+                // limit 60%
+                ).next(new TestCase() // c 7500, p 7500, g 0
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, true)
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 7500)
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.MAX_ACTIVE_POWER, 20000)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 19500)
+
+                // limit 30%, but no limit can be calculated in this cycle
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, true)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, null)
+
+                // the fast path of the failed cycle is gone, the limit is ramped
+                ).next(new TestCase()
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 7500)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 18157)
+                ).deactivate();
+    }
+
+    @Test
+    public void paragraph14a_fastRelaisReactionUnchangedTest() throws Exception {
+
+        DummyManagedSymmetricPvInverter pvInverter0 = new DummyManagedSymmetricPvInverter("pvInverter0");
+        DummyInputOutput io0 = new DummyInputOutput("io0");
+
+        ControllerParagraph14aImpl sut = new ControllerParagraph14aImpl();
+        ControllerTest test = new ControllerTest(sut)
+                .addReference("cm", new DummyConfigurationAdmin())
+                .addReference("pvInverters", List.of(pvInverter0))
+                .addComponent(pvInverter0)
+                .addReference("gridMeter", new DummyElectricityMeter("meter0"))
+                .addReference("componentManager", new DummyComponentManager())
+                .addComponent(io0)
+                .activate(MyConfig.create()
+                        .setId("ctrlParagraph14a0")
+                        .setMode(RelaisMode.FNN2bit1StbV1StbE)
+                        .setInputRelaisId1("io0/InputOutput0")
+                        .setInputRelaisId2("io0/InputOutput1")
+                        .setInputRelaisId3("io0/InputOutput2")
+                        .setInputRelaisId4("io0/InputOutput3")
+                        .setFastRelaisReaction(true)
+                        .setGridMeterId("meter0")
+                        .setPvInverterId("pvInverter0")
+                        .setEvcsClusterId("evcsCluster0")
+                        .build()
+
+                // limit 60%
+                ).next(new TestCase() // c 7500, p 7500, g 0
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, true)
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 7500)
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.MAX_ACTIVE_POWER, 20000)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 19500)
+                );
+
+        // the driver sets the sampled values again, this is no change
+        io0.channel(DummyInputOutput.ChannelId.INPUT_OUTPUT2).setNextValue(false);
+        io0.channel(DummyInputOutput.ChannelId.INPUT_OUTPUT3).setNextValue(true);
+        assertFalse(sut.isInputRelaisChanged());
+
+        // a relais flips after the sample
+        io0.channel(DummyInputOutput.ChannelId.INPUT_OUTPUT2).setNextValue(true);
+        assertTrue(sut.isInputRelaisChanged());
+
+        test.deactivate();
+    }
+
+    @Test
+    public void paragraph14a_limitLatencyTest() throws Exception {
+
+        TimeLeapClock clock = new TimeLeapClock(Instant.ofEpochSecond(1735689600), ZoneOffset.UTC);
+        DummyManagedSymmetricPvInverter pvInverter0 = new DummyManagedSymmetricPvInverter("pvInverter0");
+
+        ControllerParagraph14aImpl sut = new ControllerParagraph14aImpl();
+        new ControllerTest(sut)
+                .addReference("cm", new DummyConfigurationAdmin())
+                .addReference("pvInverters", List.of(pvInverter0))
+                .addComponent(pvInverter0)
+                .addReference("gridMeter", new DummyElectricityMeter("meter0"))
+                .addReference("componentManager", new DummyComponentManager(clock))
+                .addComponent(new DummyInputOutput("io0"))
+                .activate(MyConfig.create()
+                        .setId("ctrlParagraph14a0")
+                        .setMode(RelaisMode.FNN2bit1StbV1StbE)
+                        .setInputRelaisId1("io0/InputOutput0")
+                        .setInputRelaisId2("io0/InputOutput1")
+                        .setInputRelaisId3("io0/InputOutput2")
+                        .setInputRelaisId4("io0/InputOutput3")
+                        .setGridMeterId("meter0")
+                        .setPvInverterId("pvInverter0")
+                        .setEvcsClusterId("evcsCluster0")
+                        .build()
+
+                // no limit, the inverter reports its full power as limit
+                ).next(new TestCase() // c 7500, p 7500, g 0
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 7500)
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.MAX_ACTIVE_POWER, 20000)
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 20000)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_LIMIT_LATENCY_MAX, null)
+
+                // limit 60%, the inverter does not acknowledge the limit yet
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, true)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 19500)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_LIMIT_LATENCY_MAX, null)
+
+                // the target moves with the pv power, still not acknowledged
+                ).next(new TestCase()
+                        .timeleap(clock, 2, ChronoUnit.SECONDS)
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 7000)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_LIMIT_LATENCY_MAX, null)
+
+                // the inverter reports the limit of the transition
+                ).next(new TestCase()
+                        .timeleap(clock, 3, ChronoUnit.SECONDS)
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 19500)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_LIMIT_LATENCY_MAX, 5000)
+                ).deactivate();
+    }
+
+    @Test
+    public void paragraph14a_twoPvInverterTest() throws Exception {
+
+        DummyManagedSymmetricPvInverter pvInverter0 = new DummyManagedSymmetricPvInverter("pvInverter0");
+        DummyManagedSymmetricPvInverter pvInverter1 = new DummyManagedSymmetricPvInverter("pvInverter1");
+
+        ControllerParagraph14aImpl sut = new ControllerParagraph14aImpl();
+        new ControllerTest(sut)
+                .addReference("cm", new DummyConfigurationAdmin())
+                .addReference("pvInverters", List.of(pvInverter0, pvInverter1))
+                .addComponent(pvInverter0)
+                .addComponent(pvInverter1)
+                .addReference("gridMeter", new DummyElectricityMeter("meter0"))
+                .addReference("componentManager", new DummyComponentManager())
+                .addComponent(new DummyInputOutput("io0"))
+                .activate(MyConfig.create()
+                        .setId("ctrlParagraph14a0")
+                        .setMode(RelaisMode.FNN2bit1StbV1StbE)
+                        .setInputRelaisId1("io0/InputOutput0")
+                        .setInputRelaisId2("io0/InputOutput1")
+                        .setInputRelaisId3("io0/InputOutput2")
+                        .setInputRelaisId4("io0/InputOutput3")
+                        .setGridMeterId("meter0")
+                        .setPvInverterIds("pvInverter0", "pvInverter1")
+                        .setEvcsClusterId("evcsCluster0")
+                        .build()
+
+                // no limit
+                ).next(new TestCase() // p 1000 + 3000, g 0
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 1000)
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.MAX_ACTIVE_POWER, 7000)
+                        .input("pvInverter1", ElectricityMeter.ChannelId.ACTIVE_POWER, 3000)
+                        .input("pvInverter1", ManagedSymmetricPvInverter.ChannelId.MAX_ACTIVE_POWER, 13000)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER, 4000)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_MAX_ACTIVE_POWER, 20000)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, null)
+                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+
+                // limit 60%, split by max active power
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, true)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 16000)
+                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 5600)
+                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 10400)
+
+                // more production, the limit is capped at the hardware max
+                ).next(new TestCase() // p 1000 + 9000, g 0
+                        .input("pvInverter1", ElectricityMeter.ChannelId.ACTIVE_POWER, 9000)
+                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                        .input("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 20000)
+                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 7000)
+                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 13000)
+
+                // limit 30%
+                ).next(new TestCase() // p 1000 + 3000, g 0
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, true)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
+                        .input("pvInverter1", ElectricityMeter.ChannelId.ACTIVE_POWER, 3000)
+                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                        .input("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 10000)
+                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 3500)
+                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 6500)
+
+                // off, the current production is still allowed as grid power is 0
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, true)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, true)
+                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                        .input("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 4000)
+                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 1400)
+                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 2600)
+
+                // no limit
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                        .input("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, null)
+                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                ).deactivate();
+    }
+
+    @Test
+    public void paragraph14a_roundingTest() throws Exception {
+
+        DummyManagedSymmetricPvInverter pvInverter0 = new DummyManagedSymmetricPvInverter("pvInverter0");
+        DummyManagedSymmetricPvInverter pvInverter1 = new DummyManagedSymmetricPvInverter("pvInverter1");
+
+        ControllerParagraph14aImpl sut = new ControllerParagraph14aImpl();
+        new ControllerTest(sut)
+                .addReference("cm", new DummyConfigurationAdmin())
+                .addReference("pvInverters", List.of(pvInverter0, pvInverter1))
+                .addComponent(pvInverter0)
+                .addComponent(pvInverter1)
+                .addReference("gridMeter", new DummyElectricityMeter("meter0"))
+                .addReference("componentManager", new DummyComponentManager())
+                .addComponent(new DummyInputOutput("io0"))
+                .activate(MyConfig.create()
+                        .setId("ctrlParagraph14a0")
+                        .setMode(RelaisMode.FNN2bit1StbV1StbE)
+                        .setInputRelaisId1("io0/InputOutput0")
+                        .setInputRelaisId2("io0/InputOutput1")
+                        .setInputRelaisId3("io0/InputOutput2")
+                        .setInputRelaisId4("io0/InputOutput3")
+                        .setGridMeterId("meter0")
+                        .setPvInverterIds("pvInverter0", "pvInverter1")
+                        .setEvcsClusterId("evcsCluster0")
+                        .build()
+
+                // no limit
+                ).next(new TestCase() // p 500 + 500, g 0
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 500)
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.MAX_ACTIVE_POWER, 10000)
+                        .input("pvInverter1", ElectricityMeter.ChannelId.ACTIVE_POWER, 500)
+                        .input("pvInverter1", ManagedSymmetricPvInverter.ChannelId.MAX_ACTIVE_POWER, 10000)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, null)
+
+                // limit 60%, the first value fills the filter
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, true)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 13000)
+                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 6500)
+                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 6500)
+
+                // 13000 + 15 * 200 / 67 = 13044.78 is rounded, not truncated,
+                // the uneven split still sums up to the filtered limit
+                ).next(new TestCase() // p 500 + 700, g 0
+                        .input("pvInverter1", ElectricityMeter.ChannelId.ACTIVE_POWER, 700)
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                        .input("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 13045)
+                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 6522)
+                        .output("pvInverter1", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 6523)
+                ).deactivate();
+    }
+
+    @Test
+    public void paragraph14a_steadyStateTest() throws Exception {
+
+        DummyManagedSymmetricPvInverter pvInverter0 = new DummyManagedSymmetricPvInverter("pvInverter0");
+        DummyEvcsClusterPeakShaving evcsCluster0 = new DummyEvcsClusterPeakShaving("evcsCluster0");
+
+        ControllerParagraph14aImpl sut = new ControllerParagraph14aImpl();
+        new ControllerTest(sut)
+                .addReference("cm", new DummyConfigurationAdmin())
+                .addReference("pvInverters", List.of(pvInverter0))
+                .addComponent(pvInverter0)
+                .addReference("evcsClusters", List.of(evcsCluster0))
+                .addComponent(evcsCluster0)
+                .addReference("gridMeter", new DummyElectricityMeter("meter0"))
+                .addReference("componentManager", new DummyComponentManager())
+                .addComponent(new DummyInputOutput("io0"))
+                .activate(MyConfig.create()
+                        .setId("ctrlParagraph14a0")
+                        .setMode(RelaisMode.FNN2bit1StbV1StbE)
+                        .setInputRelaisId1("io0/InputOutput0")
+                        .setInputRelaisId2("io0/InputOutput1")
+                        .setInputRelaisId3("io0/InputOutput2")
+                        .setInputRelaisId4("io0/InputOutput3")
+                        .setGridMeterId("meter0")
+                        .setPvInverterId("pvInverter0")
+                        .setEvcsClusterId("evcsCluster0")
+                        .build()
+
+                // no limit, but no pv power, so the cycle failed
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT0, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.MAX_ACTIVE_POWER, 20000)
+                        .output("ctrlParagraph14a0", Controller.ChannelId.RUN_FAILED, true)
+
+                // still calculated after the failed cycle
+                ).next(new TestCase()
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 1000)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER, 1000)
+                        .output("ctrlParagraph14a0", Controller.ChannelId.RUN_FAILED, false)
+
+                // steady state, nothing is calculated, limits are still cleared
+                ).next(new TestCase()
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 2000)
+                        .input("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 5000)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER, 1000)
+                        .output("ctrlParagraph14a0", Controller.ChannelId.RUN_FAILED, false)
+                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, null)
+
+                // limit 60% leaves the steady state
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, true)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER, 2000)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 14000)
+
+                // no limit, calculated once more, then steady again
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 3000)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER, 3000)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, null)
+                ).next(new TestCase()
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 4000)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER, 3000)
+                ).deactivate();
+    }
+
+    @Test
+    public void paragraph14a_pvInverterWithEvcsClusterTest() throws Exception {
+
+        DummyElectricityMeter meter0 = new DummyElectricityMeter("meter0");
+        DummyManagedSymmetricPvInverter pvInverter0 = new DummyManagedSymmetricPvInverter("pvInverter0");
+        DummyEvcsClusterPeakShaving evcsCluster0 = new DummyEvcsClusterPeakShaving("evcsCluster0");
+
+        ControllerParagraph14aImpl sut = new ControllerParagraph14aImpl();
+        new ControllerTest(sut)
+                .addReference("cm", new DummyConfigurationAdmin())
+                .addReference("pvInverters", List.of(pvInverter0))
+                .addComponent(pvInverter0)
+                .addReference("evcsClusters", List.of(evcsCluster0))
+                .addComponent(evcsCluster0)
+                .addReference("gridMeter", meter0)
+                .addComponent(meter0)
+                .addReference("componentManager", new DummyComponentManager())
+                .addComponent(new DummyInputOutput("io0"))
+                .activate(MyConfig.create()
+                        .setId("ctrlParagraph14a0")
+                        .setMode(RelaisMode.FNN2bit1StbV1StbE)
+                        .setInputRelaisId1("io0/InputOutput0")
+                        .setInputRelaisId2("io0/InputOutput1")
+                        .setInputRelaisId3("io0/InputOutput2")
+                        .setInputRelaisId4("io0/InputOutput3")
+                        .setGridMeterId("meter0")
+                        .setPvInverterIds("pvInverter0")
+                        .setEvcsClusterIds("evcsCluster0")
+                        .build()
+
+                // no limit
+                ).next(new TestCase() // p 4000, g 0
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT0, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
+                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 0)
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 4000)
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.MAX_ACTIVE_POWER, 20000)
+                        .input("evcsCluster0", ManagedEvcsCluster.ChannelId.EVCS_COUNT, 1)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, null)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.EVCS_CLUSTER_MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, null)
+                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, null)
+
+                // limit 60% and reduced, pMin of a single evcs plus the pv power
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, true)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, true)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 16000)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.EVCS_CLUSTER_MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 8200)
+                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 16000)
+                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 8200)
+
+                // off, only the pv power is left for the evcs
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT0, true)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, true)
+                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 4000)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.EVCS_CLUSTER_MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 4000)
+                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 4000)
+                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 4000)
+
+                // grid import allows more pv power, the evcs still get the pv power only
+                ).next(new TestCase() // p 4000, g 1000
+                        .input("meter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 1000)
+                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, 5000)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.EVCS_CLUSTER_MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 4000)
+                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, 5000)
+                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 4000)
+
+                // no limit
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT0, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.PVINVERTER_ACTIVE_POWER_LIMIT, null)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.EVCS_CLUSTER_MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, null)
+                        .output("pvInverter0", ManagedSymmetricPvInverter.ChannelId.ACTIVE_POWER_LIMIT, null)
+                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, null)
+                ).deactivate();
+    }
+
+    @Test
+    public void paragraph14a_simpleEvcsClusterTest() throws Exception {
+
+        DummyManagedSymmetricPvInverter pvInverter0 = new DummyManagedSymmetricPvInverter("pvInverter0");
+        DummyEvcsClusterPeakShaving evcsCluster0 = new DummyEvcsClusterPeakShaving("evcsCluster0");
+
+        ControllerParagraph14aImpl sut = new ControllerParagraph14aImpl();
+        new ControllerTest(sut)
+                .addReference("cm", new DummyConfigurationAdmin())
+                .addReference("pvInverters", List.of(pvInverter0))
+                .addComponent(pvInverter0)
+                .addReference("evcsClusters", List.of(evcsCluster0))
+                .addComponent(evcsCluster0)
+                .addReference("gridMeter", new DummyElectricityMeter("meter0"))
+                .addReference("componentManager", new DummyComponentManager())
+                .addComponent(new DummyInputOutput("io0"))
+                .activate(MyConfig.create()
+                        .setId("ctrlParagraph14a0")
+                        .setMode(RelaisMode.FNN2bit1StbV1StbE)
+                        .setInputRelaisId1("io0/InputOutput0")
+                        .setInputRelaisId2("io0/InputOutput1")
+                        .setInputRelaisId3("io0/InputOutput2")
+                        .setInputRelaisId4("io0/InputOutput3")
+                        .setGridMeterId("meter0")
+                        .setPvInverterId("pvInverter0")
+                        .setEvcsClusterId("evcsCluster0")
+                        .build()
+
+                // no limit
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT0, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 0)
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.MAX_ACTIVE_POWER, 20000)
+                        .input("evcsCluster0", ManagedEvcsCluster.ChannelId.EVCS_COUNT, 2)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.CONSUMPTION_MANAGEMENT, ConsumptionManagment.FULL)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.EVCS_COUNT, 2)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.EVCS_CLUSTER_MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, null)
+                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, null)
+
+                // shut off
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT0, true)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, true)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.CONSUMPTION_MANAGEMENT, ConsumptionManagment.OFF)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.EVCS_CLUSTER_MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 0)
+                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 0)
+                ).next(new TestCase()
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 5000)
+                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.EVCS_CLUSTER_MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 5000)
+                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 5000)
+
+                // unused state
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT0, true)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, false)
+                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.CONSUMPTION_MANAGEMENT, ConsumptionManagment.UNUSED)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.EVCS_CLUSTER_MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 0)
+                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 0)
+
+                // scale down, pMin 4200 + 80% * 4200 for the second evcs plus the pv power
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT0, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, true)
+                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.CONSUMPTION_MANAGEMENT, ConsumptionManagment.REDUCED)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.EVCS_CLUSTER_MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 12560)
+                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 12560)
+                ).next(new TestCase()
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 3000)
+                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
+                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 10560)
+
+                // no limit
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, false)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.CONSUMPTION_MANAGEMENT, ConsumptionManagment.FULL)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.EVCS_CLUSTER_MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, null)
+                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, null)
+                ).deactivate();
+    }
+
+    @Test
+    public void paragraph14a_noEvcsClusterIdTest() throws Exception {
+
+        // neither ids nor the single id, the filter would bind every cluster
+        MyConfig config = MyConfig.create()
+                .setId("ctrlParagraph14a0")
+                .setGridMeterId("meter0")
+                .setPvInverterId("pvInverter0")
+                .build();
+
+        assertThrows(OpenemsException.class,
+                () -> ControllerParagraph14aImpl.requiredIds(config.evcsCluster_ids(), config.evcsCluster_id(), "EvcsCluster"));
+    }
+
+    @Test
+    public void paragraph14a_sortEvcsClusterTest() throws Exception {
+
+        DummyEvcsClusterPeakShaving evcsCluster0 = new DummyEvcsClusterPeakShaving("evcsCluster0");
+        DummyEvcsClusterPeakShaving evcsCluster2 = new DummyEvcsClusterPeakShaving("evcsCluster2");
+
+        // evcsCluster1 is not bound, the others keep their configured order
+        ManagedEvcsCluster[] sorted = ControllerParagraph14aImpl.sortByIds(
+                List.of(evcsCluster0, evcsCluster2),
+                new String[] { "evcsCluster2", "evcsCluster1", "evcsCluster0" });
+
+        assertArrayEquals(new ManagedEvcsCluster[] { evcsCluster2, evcsCluster0 }, sorted);
+    }
+
+    @Test
+    public void paragraph14a_multipleEvcsClusterTest() throws Exception {
+
+        DummyManagedSymmetricPvInverter pvInverter0 = new DummyManagedSymmetricPvInverter("pvInverter0");
+        DummyEvcsClusterPeakShaving evcsCluster0 = new DummyEvcsClusterPeakShaving("evcsCluster0");
+        DummyEvcsClusterPeakShaving evcsCluster1 = new DummyEvcsClusterPeakShaving("evcsCluster1");
+
+        ControllerParagraph14aImpl sut = new ControllerParagraph14aImpl();
+        new ControllerTest(sut)
+                .addReference("cm", new DummyConfigurationAdmin())
+                .addReference("pvInverters", List.of(pvInverter0))
+                .addComponent(pvInverter0)
+                .addReference("evcsClusters", List.of(evcsCluster1, evcsCluster0))
+                .addComponent(evcsCluster0)
+                .addComponent(evcsCluster1)
+                .addReference("gridMeter", new DummyElectricityMeter("meter0"))
+                .addReference("componentManager", new DummyComponentManager())
+                .addComponent(new DummyInputOutput("io0"))
+                .activate(MyConfig.create()
+                        .setId("ctrlParagraph14a0")
+                        .setMode(RelaisMode.FNN2bit1StbV1StbE)
+                        .setInputRelaisId1("io0/InputOutput0")
+                        .setInputRelaisId2("io0/InputOutput1")
+                        .setInputRelaisId3("io0/InputOutput2")
+                        .setInputRelaisId4("io0/InputOutput3")
+                        .setGridMeterId("meter0")
+                        .setPvInverterId("pvInverter0")
+                        .setEvcsClusterIds("evcsCluster0", "evcsCluster1")
+                        .build()
+
+                // no limit
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT0, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT2, false)
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT3, false)
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 0)
+                        .input("pvInverter0", ManagedSymmetricPvInverter.ChannelId.MAX_ACTIVE_POWER, 20000)
+                        .input("evcsCluster0", ManagedEvcsCluster.ChannelId.EVCS_COUNT, 2)
+                        .input("evcsCluster1", ManagedEvcsCluster.ChannelId.EVCS_COUNT, 3)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.EVCS_COUNT, 5)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.EVCS_CLUSTER_MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, null)
+                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, null)
+                        .output("evcsCluster1", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, null)
+
+                // scale down, the first cluster gets its pMin first
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, true)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.EVCS_CLUSTER_MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 15120)
+                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 8400)
+                        .output("evcsCluster1", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 6720)
+                ).next(new TestCase()
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 3000)
+                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.EVCS_CLUSTER_MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 18120)
+                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 8400)
+                        .output("evcsCluster1", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 9720)
+
+                // more than all pMin, the rest is split by demand
+                ).next(new TestCase()
+                        .input("pvInverter0", ElectricityMeter.ChannelId.ACTIVE_POWER, 10000)
+                ).next(new TestCase(), RAMP_CYCLES).next(new TestCase()
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.EVCS_CLUSTER_MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 25120)
+                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 10048)
+                        .output("evcsCluster1", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, 15072)
+
+                // no limit
+                ).next(new TestCase()
+                        .input("io0", DummyInputOutput.ChannelId.INPUT_OUTPUT1, false)
+                        .output("ctrlParagraph14a0", ControllerParagraph14a.ChannelId.EVCS_CLUSTER_MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, null)
+                        .output("evcsCluster0", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, null)
+                        .output("evcsCluster1", ManagedEvcsCluster.ChannelId.MAXIMUM_ALLOWED_POWER_TO_DISTRIBUTE, null)
+                ).deactivate();
+    }
 }
 
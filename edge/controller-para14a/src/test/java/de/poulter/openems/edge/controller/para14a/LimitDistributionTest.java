@@ -0,0 +1,97 @@
+/*
+ *   OpenEMS Paragraph 14a Controller
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.edge.controller.para14a;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class LimitDistributionTest {
+
+    @Test
+    public void maxActivePowerTest() throws Exception {
+        LimitDistribution distribution = new LimitDistribution(2);
+        distribution.set(0, 7000, 2000);
+        distribution.set(1, 13000, 2000);
+
+        distribution.distribute(13000, PvInverterSplitMode.MAX_ACTIVE_POWER);
+        assertEquals(4550, distribution.getLimit(0));
+        assertEquals(8450, distribution.getLimit(1));
+    }
+
+    @Test
+    public void roundingTest() throws Exception {
+        LimitDistribution distribution = new LimitDistribution(3);
+        distribution.set(0, 1000, 0);
+        distribution.set(1, 1000, 0);
+        distribution.set(2, 1000, 0);
+
+        distribution.distribute(1000, PvInverterSplitMode.MAX_ACTIVE_POWER);
+        assertEquals(1000, distribution.getLimit(0) + distribution.getLimit(1) + distribution.getLimit(2));
+        assertEquals(333, distribution.getLimit(0));
+        assertEquals(333, distribution.getLimit(1));
+        assertEquals(334, distribution.getLimit(2));
+    }
+
+    @Test
+    public void activePowerTest() throws Exception {
+        LimitDistribution distribution = new LimitDistribution(3);
+        distribution.set(0, 10000, 6000);
+        distribution.set(1, 10000, 2000);
+
+        // idle inverter still gets 10% of its max as weight
+        distribution.set(2, 10000, 0);
+
+        distribution.distribute(9000, PvInverterSplitMode.ACTIVE_POWER);
+        assertEquals(6000, distribution.getLimit(0));
+        assertEquals(2000, distribution.getLimit(1));
+        assertEquals(1000, distribution.getLimit(2));
+    }
+
+    @Test
+    public void excessTest() throws Exception {
+        LimitDistribution distribution = new LimitDistribution(2);
+        distribution.set(0, 2000, 2000);
+        distribution.set(1, 10000, 1000);
+
+        // inverter 0 would get 8000, the excess goes to inverter 1
+        distribution.distribute(12000, PvInverterSplitMode.ACTIVE_POWER);
+        assertEquals(2000, distribution.getLimit(0));
+        assertEquals(10000, distribution.getLimit(1));
+    }
+
+    @Test
+    public void noWeightTest() throws Exception {
+        LimitDistribution distribution = new LimitDistribution(2);
+        distribution.set(0, 0, 0);
+        distribution.set(1, 0, 0);
+
+        distribution.distribute(1000, PvInverterSplitMode.MAX_ACTIVE_POWER);
+        assertEquals(0, distribution.getLimit(0));
+        assertEquals(0, distribution.getLimit(1));
+
+        distribution.distribute(-5, PvInverterSplitMode.MAX_ACTIVE_POWER);
+        assertEquals(0, distribution.getLimit(0));
+    }
+}
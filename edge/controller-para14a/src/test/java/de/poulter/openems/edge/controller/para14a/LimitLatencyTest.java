@@ -0,0 +1,115 @@
+/*
+ *   OpenEMS Paragraph 14a Controller
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.edge.controller.para14a;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+public class LimitLatencyTest {
+
+    private long now = 0L;
+
+    private void advance(Duration duration) {
+        now += duration.toNanos();
+    }
+
+    @Test
+    public void latencyTest() throws Exception {
+        LimitLatency latency = new LimitLatency(() -> now);
+        assertNull(latency.getMax());
+
+        // reached after 2 seconds
+        latency.start();
+        advance(Duration.ofSeconds(1));
+        latency.update(20000, 12000);
+        advance(Duration.ofSeconds(1));
+        latency.update(12050, 12000);
+        assertFalse(latency.isPending());
+
+        // reached after 4 seconds
+        latency.start();
+        advance(Duration.ofSeconds(4));
+        latency.update(6000, 6000);
+
+        assertEquals(4000, latency.getMax());
+        assertEquals(2000, latency.getPercentile(50d), 100);
+        assertEquals(4000, latency.getPercentile(95d), 100);
+    }
+
+    @Test
+    public void delayedAcknowledgementTest() throws Exception {
+        LimitLatency latency = new LimitLatency(() -> now);
+
+        // the device keeps reporting the old limit for 3 seconds while the
+        // target follows the grid power, the first target is kept
+        latency.start();
+        advance(Duration.ofSeconds(1));
+        latency.update(20000, 12000);
+        advance(Duration.ofSeconds(1));
+        latency.update(20000, 11500);
+        advance(Duration.ofSeconds(1));
+        latency.update(20000, 11000);
+        assertTrue(latency.isPending());
+
+        advance(Duration.ofSeconds(1));
+        latency.update(12000, 10500);
+        assertFalse(latency.isPending());
+        assertEquals(4000, latency.getMax());
+    }
+
+    @Test
+    public void cancelTest() throws Exception {
+        LimitLatency latency = new LimitLatency(() -> now);
+
+        latency.start();
+        advance(Duration.ofSeconds(1));
+        latency.cancel();
+        latency.update(0, 0);
+
+        assertNull(latency.getMax());
+    }
+
+    @Test
+    public void timeoutTest() throws Exception {
+        LimitLatency latency = new LimitLatency(() -> now);
+
+        latency.start();
+        advance(Duration.ofMinutes(20));
+        latency.update(20000, 0);
+
+        assertFalse(latency.isPending());
+        assertEquals(900000, latency.getMax());
+
+        // dropped after one week
+        advance(Duration.ofDays(8));
+        latency.update(null, null);
+        assertNull(latency.getMax());
+    }
+}
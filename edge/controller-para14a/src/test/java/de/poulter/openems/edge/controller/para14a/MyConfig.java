@@ -23,6 +23,7 @@
 
 package de.poulter.openems.edge.controller.para14a;
 
+import de.poulter.openems.lib.filter.FilterType;
 import io.openems.common.test.AbstractComponentConfig;
 import io.openems.common.utils.ConfigUtils;
 
@@ -40,9 +41,24 @@ public class MyConfig extends AbstractComponentConfig implements Config {
         private String inputRelaisId2;
         private String inputRelaisId3;
         private String inputRelaisId4;
+        private boolean fastRelaisReaction = false;
         private String gridMeterId;
-        private String pvInverterId;
-        private String evcsClusterId;
+        private String pvInverterId = "";
+        private String[] pvInverterIds = {};
+        private PvInverterSplitMode pvInverterSplitMode = PvInverterSplitMode.MAX_ACTIVE_POWER;
+        private String evcsClusterId = "";
+        private String[] evcsClusterIds = {};
+        private FilterType filterType = FilterType.WEIGHTED_MEAN;
+        private double filterAlpha = 0.3;
+        private int filterWindow = 5;
+        private double filterProcessNoise = 250000.0;
+        private double filterMeasurementNoise = 1000000.0;
+        private LimitControlMode limitControlMode = LimitControlMode.FILTER;
+        private double pidKp = 0.7;
+        private double pidKi = 0.2;
+        private double pidKd = 0.0;
+        private int traceCycles = 0;
+        private String recordFile = "";
 
         private Builder() {
         }
@@ -82,6 +98,11 @@ public class MyConfig extends AbstractComponentConfig implements Config {
             return this;
         }
 
+        public Builder setFastRelaisReaction(boolean fastRelaisReaction) {
+            this.fastRelaisReaction = fastRelaisReaction;
+            return this;
+        }
+
         public Builder setGridMeterId(String gridMeterId) {
             this.gridMeterId = gridMeterId;
             return this;
@@ -92,11 +113,81 @@ public class MyConfig extends AbstractComponentConfig implements Config {
             return this;
         }
 
+        public Builder setPvInverterIds(String... pvInverterIds) {
+            this.pvInverterIds = pvInverterIds;
+            return this;
+        }
+
+        public Builder setPvInverterSplitMode(PvInverterSplitMode pvInverterSplitMode) {
+            this.pvInverterSplitMode = pvInverterSplitMode;
+            return this;
+        }
+
         public Builder setEvcsClusterId(String evcsClusterId) {
             this.evcsClusterId = evcsClusterId;
             return this;
         }
 
+        public Builder setEvcsClusterIds(String... evcsClusterIds) {
+            this.evcsClusterIds = evcsClusterIds;
+            return this;
+        }
+
+        public Builder setFilterType(FilterType filterType) {
+            this.filterType = filterType;
+            return this;
+        }
+
+        public Builder setFilterAlpha(double filterAlpha) {
+            this.filterAlpha = filterAlpha;
+            return this;
+        }
+
+        public Builder setFilterWindow(int filterWindow) {
+            this.filterWindow = filterWindow;
+            return this;
+        }
+
+        public Builder setFilterProcessNoise(double filterProcessNoise) {
+            this.filterProcessNoise = filterProcessNoise;
+            return this;
+        }
+
+        public Builder setFilterMeasurementNoise(double filterMeasurementNoise) {
+            this.filterMeasurementNoise = filterMeasurementNoise;
+            return this;
+        }
+
+        public Builder setLimitControlMode(LimitControlMode limitControlMode) {
+            this.limitControlMode = limitControlMode;
+            return this;
+        }
+
+        public Builder setPidKp(double pidKp) {
+            this.pidKp = pidKp;
+            return this;
+        }
+
+        public Builder setPidKi(double pidKi) {
+            this.pidKi = pidKi;
+            return this;
+        }
+
+        public Builder setPidKd(double pidKd) {
+            this.pidKd = pidKd;
+            return this;
+        }
+
+        public Builder setTraceCycles(int traceCycles) {
+            this.traceCycles = traceCycles;
+            return this;
+        }
+
+        public Builder setRecordFile(String recordFile) {
+            this.recordFile = recordFile;
+            return this;
+        }
+
         public MyConfig build() {
             return new MyConfig(this);
         }
@@ -137,6 +228,11 @@ public class MyConfig extends AbstractComponentConfig implements Config {
         return builder.inputRelaisId4;
     }
 
+    @Override
+    public boolean fastRelaisReaction() {
+        return builder.fastRelaisReaction;
+    }
+
     @Override
     public RelaisMode relaisMode() {
         return builder.relaisMode;
@@ -163,8 +259,18 @@ public class MyConfig extends AbstractComponentConfig implements Config {
     }
 
     @Override
-    public String pvInverter_target() {
-        return ConfigUtils.generateReferenceTargetFilter(id(), pvInverter_id());
+    public String[] pvInverter_ids() {
+        return builder.pvInverterIds;
+    }
+
+    @Override
+    public String pvInverters_target() {
+        return ConfigUtils.generateReferenceTargetFilter(id(), ControllerParagraph14aImpl.configuredIds(pvInverter_ids(), pvInverter_id()));
+    }
+
+    @Override
+    public PvInverterSplitMode pvInverterSplitMode() {
+        return builder.pvInverterSplitMode;
     }
 
     @Override
@@ -173,9 +279,68 @@ public class MyConfig extends AbstractComponentConfig implements Config {
     }
 
     @Override
-    public String evcsCluster_target() {
-        return ConfigUtils.generateReferenceTargetFilter(id(), evcsCluster_id());
+    public String[] evcsCluster_ids() {
+        return builder.evcsClusterIds;
     }
 
-}
+    @Override
+    public String evcsClusters_target() {
+        return ConfigUtils.generateReferenceTargetFilter(id(), ControllerParagraph14aImpl.configuredIds(evcsCluster_ids(), evcsCluster_id()));
+    }
+
+    @Override
+    public FilterType filterType() {
+        return builder.filterType;
+    }
+
+    @Override
+    public double filterAlpha() {
+        return builder.filterAlpha;
+    }
+
+    @Override
+    public int filterWindow() {
+        return builder.filterWindow;
+    }
+
+    @Override
+    public double filterProcessNoise() {
+        return builder.filterProcessNoise;
+    }
 
+    @Override
+    public double filterMeasurementNoise() {
+        return builder.filterMeasurementNoise;
+    }
+
+    @Override
+    public LimitControlMode limitControlMode() {
+        return builder.limitControlMode;
+    }
+
+    @Override
+    public double pidKp() {
+        return builder.pidKp;
+    }
+
+    @Override
+    public double pidKi() {
+        return builder.pidKi;
+    }
+
+    @Override
+    public double pidKd() {
+        return builder.pidKd;
+    }
+
+    @Override
+    public int traceCycles() {
+        return builder.traceCycles;
+    }
+
+    @Override
+    public String recordFile() {
+        return builder.recordFile;
+    }
+
+}
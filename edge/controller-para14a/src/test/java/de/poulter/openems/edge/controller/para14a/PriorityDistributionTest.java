@@ -0,0 +1,74 @@
+/*
+ *   OpenEMS Paragraph 14a Controller
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.edge.controller.para14a;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class PriorityDistributionTest {
+
+    @Test
+    public void priorityTest() throws Exception {
+        PriorityDistribution distribution = new PriorityDistribution(3);
+        distribution.setDemand(0, 8400);
+        distribution.setDemand(1, 4200);
+        distribution.setDemand(2, 4200);
+
+        // not enough for everyone, the lowest priority gets the rest
+        distribution.distribute(14000);
+        assertEquals(8400, distribution.getLimit(0));
+        assertEquals(4200, distribution.getLimit(1));
+        assertEquals(1400, distribution.getLimit(2));
+
+        distribution.distribute(5000);
+        assertEquals(5000, distribution.getLimit(0));
+        assertEquals(0, distribution.getLimit(1));
+        assertEquals(0, distribution.getLimit(2));
+    }
+
+    @Test
+    public void surplusTest() throws Exception {
+        PriorityDistribution distribution = new PriorityDistribution(2);
+        distribution.setDemand(0, 4200);
+        distribution.setDemand(1, 8400);
+
+        // 3000 left after the demands, split 1:2
+        distribution.distribute(15600);
+        assertEquals(5200, distribution.getLimit(0));
+        assertEquals(10400, distribution.getLimit(1));
+    }
+
+    @Test
+    public void noDemandTest() throws Exception {
+        PriorityDistribution distribution = new PriorityDistribution(2);
+
+        distribution.distribute(1000);
+        assertEquals(1000, distribution.getLimit(0));
+        assertEquals(0, distribution.getLimit(1));
+
+        distribution.distribute(-1);
+        assertEquals(0, distribution.getLimit(0));
+    }
+}
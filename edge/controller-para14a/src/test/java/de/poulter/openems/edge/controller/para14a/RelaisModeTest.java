@@ -0,0 +1,104 @@
+/*
+ *   OpenEMS Paragraph 14a Controller
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.edge.controller.para14a;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class RelaisModeTest {
+
+    private static final int ALL_DEFINED = 0b1111;
+
+    @Test
+    public void fnn2bit1StbV1StbETest() throws Exception {
+        RelaisMode mode = RelaisMode.FNN2bit1StbV1StbE;
+
+        assertEquals(ConsumptionManagment.FULL, mode.getConsumption(0b0000, ALL_DEFINED));
+        assertEquals(ConsumptionManagment.UNUSED, mode.getConsumption(0b0001, ALL_DEFINED));
+        assertEquals(ConsumptionManagment.REDUCED, mode.getConsumption(0b0010, ALL_DEFINED));
+        assertEquals(ConsumptionManagment.OFF, mode.getConsumption(0b0011, ALL_DEFINED));
+
+        assertEquals(ProductionManagment.FULL, mode.getProduction(0b0000, ALL_DEFINED));
+        assertEquals(ProductionManagment.REDUCED30, mode.getProduction(0b0100, ALL_DEFINED));
+        assertEquals(ProductionManagment.REDUCED60, mode.getProduction(0b1000, ALL_DEFINED));
+        assertEquals(ProductionManagment.OFF, mode.getProduction(0b1100, ALL_DEFINED));
+
+        // undefined production relais do not affect consumption
+        assertEquals(ProductionManagment.OFF, mode.getProduction(0b0000, 0b0111));
+        assertEquals(ConsumptionManagment.FULL, mode.getConsumption(0b0000, 0b0111));
+    }
+
+    @Test
+    public void relaisStbETest() throws Exception {
+        assertEquals(ProductionManagment.OFF, RelaisMode.DreiRelais1StbE.getProduction(0b0111, ALL_DEFINED));
+        assertEquals(ProductionManagment.REDUCED30, RelaisMode.DreiRelais1StbE.getProduction(0b0110, ALL_DEFINED));
+        assertEquals(ProductionManagment.REDUCED60, RelaisMode.DreiRelais1StbE.getProduction(0b0100, ALL_DEFINED));
+        assertEquals(ProductionManagment.FULL, RelaisMode.DreiRelais1StbE.getProduction(0b1000, 0b0111));
+
+        assertEquals(ProductionManagment.FULL, RelaisMode.VierRelais1StbE.getProduction(0b1000, ALL_DEFINED));
+        assertEquals(ProductionManagment.OFF, RelaisMode.VierRelais1StbE.getProduction(0b0000, ALL_DEFINED));
+        assertEquals(ProductionManagment.OFF, RelaisMode.VierRelais1StbE.getProduction(0b1000, 0b0111));
+
+        for (int mask = 0; mask < 16; mask++) {
+            assertEquals(ConsumptionManagment.OFF, RelaisMode.DreiRelais1StbE.getConsumption(mask, ALL_DEFINED));
+            assertEquals(ConsumptionManagment.OFF, RelaisMode.VierRelais1StbE.getConsumption(mask, ALL_DEFINED));
+        }
+    }
+
+    @Test
+    public void einzelkontakt4StbVTest() throws Exception {
+        RelaisMode mode = RelaisMode.Einzelkontakt4StbV;
+
+        assertEquals(1, mode.getInputCount());
+        assertEquals(ConsumptionManagment.FULL, mode.getConsumption(0b0001, 0b0001));
+        assertEquals(ConsumptionManagment.OFF, mode.getConsumption(0b0000, 0b0001));
+        assertEquals(ConsumptionManagment.OFF, mode.getConsumption(0b0001, 0b0000));
+        assertEquals(ProductionManagment.OFF, mode.getProduction(0b0000, 0b0001));
+    }
+
+    @Test
+    public void stricterTest() throws Exception {
+        assertTrue(ProductionManagment.REDUCED60.isStricterThan(ProductionManagment.FULL));
+        assertTrue(ProductionManagment.REDUCED30.isStricterThan(ProductionManagment.REDUCED60));
+        assertTrue(ProductionManagment.OFF.isStricterThan(ProductionManagment.REDUCED30));
+        assertFalse(ProductionManagment.FULL.isStricterThan(ProductionManagment.FULL));
+
+        // UNUSED allows no power at all, so it is stricter than OFF
+        assertTrue(ConsumptionManagment.REDUCED.isStricterThan(ConsumptionManagment.FULL));
+        assertTrue(ConsumptionManagment.OFF.isStricterThan(ConsumptionManagment.REDUCED));
+        assertTrue(ConsumptionManagment.UNUSED.isStricterThan(ConsumptionManagment.OFF));
+        assertFalse(ConsumptionManagment.OFF.isStricterThan(ConsumptionManagment.UNUSED));
+        assertFalse(ConsumptionManagment.REDUCED.isStricterThan(ConsumptionManagment.REDUCED));
+    }
+
+    @Test
+    public void noneTest() throws Exception {
+        assertEquals(0, RelaisMode.None.getInputCount());
+        assertEquals(ProductionManagment.OFF, RelaisMode.None.getProduction(0b0000, 0b0000));
+        assertEquals(ConsumptionManagment.OFF, RelaisMode.None.getConsumption(0b0000, 0b0000));
+    }
+}
@@ -26,6 +26,7 @@ package de.poulter.openems.edge.solaredge.pvinverter;
 import org.osgi.service.metatype.annotations.AttributeDefinition;
 import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 
+import de.poulter.openems.lib.filter.FilterType;
 import io.openems.edge.common.type.Phase.SingleOrAllPhase;
 
 @ObjectClassDefinition(
@@ -64,6 +65,51 @@ import io.openems.edge.common.type.Phase.SingleOrAllPhase;
     @AttributeDefinition(name = "Dynamic coshhi reference", description = "Sets the dynamic cosphi reference.")
     float cosPhiRef() default 1.0f;
 
+    @AttributeDefinition(name = "Minimum write interval", description = "Minimum time in seconds between two writes of the dynamic power control registers. Keepalive writes are not delayed.")
+    int minWriteInterval() default 0;
+
+    @AttributeDefinition(name = "Filter", description = "Filter used to smooth the active power limit.")
+    FilterType filterType() default FilterType.WEIGHTED_MEAN;
+
+    @AttributeDefinition(name = "Filter EMA alpha", description = "Smoothing factor (0, 1] of the exponential moving average, higher values follow faster.")
+    double filterAlpha() default 0.3;
+
+    @AttributeDefinition(name = "Filter median window", description = "Amount of values used by the sliding median.")
+    int filterWindow() default 5;
+
+    @AttributeDefinition(name = "Filter Kalman process noise", description = "Expected variance of the limit between two cycles in %².")
+    double filterProcessNoise() default 4.0;
+
+    @AttributeDefinition(name = "Filter Kalman measurement noise", description = "Variance of a single limit in %².")
+    double filterMeasurementNoise() default 25.0;
+
+    @AttributeDefinition(name = "Filter immediate decrease", description = "Apply a lower active power limit at once instead of filtering it, needed for a fast relais reaction of the §14a controller.")
+    boolean filterImmediateDecrease() default false;
+
+    @AttributeDefinition(name = "Limit smoothing", description = "Smooth the active power limit with the filter or ramp it with the rates below.")
+    LimitSmoothing limitSmoothing() default LimitSmoothing.FILTER;
+
+    @AttributeDefinition(name = "Ramp up rate", description = "Maximum increase of the active power limit in %/s.")
+    double rampUpRate() default 10.0;
+
+    @AttributeDefinition(name = "Ramp down rate", description = "Maximum decrease of the active power limit in %/s.")
+    double rampDownRate() default 20.0;
+
+    @AttributeDefinition(name = "Ramp immediate decrease", description = "Apply a lower active power limit at once instead of ramping down.")
+    boolean rampImmediateDecrease() default true;
+
+    @AttributeDefinition(name = "Trace cycles", description = "Amount of cycles kept in the in-memory trace, dumped as JSON by writing TraceDump. 0 disables the trace.")
+    int traceCycles() default 0;
+
+    @AttributeDefinition(name = "Max registers per read", description = "Maximum amount of registers read by one modbus request, at most 125.")
+    int maxRegistersPerRead() default 125;
+
+    @AttributeDefinition(name = "Read round trip cost", description = "Cost of one modbus request in registers. Vendor register blocks with a gap up to this size are read by one request, 0 reads only adjacent blocks together. The default 3 only reads the reserved registers within the EPC block, larger values also read undocumented registers in between.")
+    int readRoundTripCost() default 3;
+
+    @AttributeDefinition(name = "EPC polling max interval", description = "The dynamic power control registers are read in the cycle after a write or a changed value, then with doubling intervals up to this amount of cycles. 1 reads them every cycle.")
+    int epcPollingMaxInterval() default 32;
+
     @AttributeDefinition(name = "Modbus target filter", description = "This is auto-generated by 'Modbus-ID'.")
     String Modbus_target() default "(enabled=true)";
 
@@ -32,6 +32,7 @@ import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
 import io.openems.common.types.OpenemsType;
 import io.openems.edge.bridge.modbus.api.ModbusComponent;
 import io.openems.edge.bridge.modbus.sunspec.pvinverter.SunSpecPvInverter;
+import io.openems.edge.common.channel.BooleanWriteChannel;
 import io.openems.edge.common.channel.Doc;
 import io.openems.edge.common.channel.FloatReadChannel;
 import io.openems.edge.common.channel.FloatWriteChannel;
@@ -71,6 +72,13 @@ public interface SolarEdgeSe9kPvInverter extends SunSpecPvInverter, ManagedSymme
         EPC_DYNAMIC_COSPHI_REF         (Doc.of(OpenemsType.FLOAT)  .accessMode(AccessMode.READ_WRITE).unit(Unit.NONE)                .persistencePriority(PersistencePriority.LOW)),
 
         OVERRIDE_ACTIVE_POWER_LIMIT    (Doc.of(OpenemsType.FLOAT)  .accessMode(AccessMode.READ_WRITE).unit(Unit.PERCENT)             .persistencePriority(PersistencePriority.HIGH)),
+
+        EPC_WRITE_LATENCY_MIN          (Doc.of(OpenemsType.INTEGER).accessMode(AccessMode.READ_ONLY) .unit(Unit.MILLISECONDS)        .persistencePriority(PersistencePriority.HIGH)),
+        EPC_WRITE_LATENCY_AVG          (Doc.of(OpenemsType.INTEGER).accessMode(AccessMode.READ_ONLY) .unit(Unit.MILLISECONDS)        .persistencePriority(PersistencePriority.HIGH)),
+        EPC_WRITE_LATENCY_MAX          (Doc.of(OpenemsType.INTEGER).accessMode(AccessMode.READ_ONLY) .unit(Unit.MILLISECONDS)        .persistencePriority(PersistencePriority.HIGH)),
+        EPC_WRITE_MISMATCH_COUNT       (Doc.of(OpenemsType.LONG)   .accessMode(AccessMode.READ_ONLY) .unit(Unit.NONE)                .persistencePriority(PersistencePriority.HIGH)),
+
+        TRACE_DUMP                     (Doc.of(OpenemsType.BOOLEAN).accessMode(AccessMode.WRITE_ONLY).unit(Unit.NONE)                .persistencePriority(PersistencePriority.LOW)),
         ;
 
         private final Doc doc;
@@ -196,6 +204,10 @@ public interface SolarEdgeSe9kPvInverter extends SunSpecPvInverter, ManagedSymme
         getOverrideActivePowerChannel().setNextWriteValue(value);
     }
 
+    public default BooleanWriteChannel getTraceDumpChannel() {
+        return channel(ChannelId.TRACE_DUMP);
+    }
+
     public default LongReadChannel getEpcCommandTimeoutChannel() {
         return channel(ChannelId.EPC_COMMAND_TIMEOUT);
     }
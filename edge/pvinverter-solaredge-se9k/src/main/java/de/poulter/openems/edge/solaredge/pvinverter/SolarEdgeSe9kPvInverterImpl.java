@@ -23,6 +23,8 @@
 
 package de.poulter.openems.edge.solaredge.pvinverter;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -44,14 +46,22 @@ import org.osgi.service.event.propertytypes.EventTopics;
 import org.osgi.service.metatype.annotations.Designate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.helpers.MessageFormatter;
 
 import com.google.common.collect.ImmutableMap;
 
+import de.poulter.openems.lib.control.RampLimiter;
+import de.poulter.openems.lib.filter.Filter;
 import de.poulter.openems.lib.mean.WeightedMean;
-import de.poulter.openems.lib.utils.DiffTimeApply;
+import de.poulter.openems.lib.modbus.RegisterBlockPlanner;
+import de.poulter.openems.lib.trace.CycleTrace;
+import de.poulter.openems.lib.utils.AdaptivePolling;
+import de.poulter.openems.lib.utils.WriteConfirmation;
+import de.poulter.openems.lib.utils.FloatSetpointGroup;
 import io.openems.common.channel.AccessMode;
 import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
 import io.openems.common.exceptions.OpenemsException;
+import io.openems.edge.bridge.modbus.api.AbstractModbusBridge;
 import io.openems.edge.bridge.modbus.api.BridgeModbus;
 import io.openems.edge.bridge.modbus.api.ModbusComponent;
 import io.openems.edge.bridge.modbus.api.element.DummyRegisterElement;
@@ -63,6 +73,7 @@ import io.openems.edge.bridge.modbus.api.element.UnsignedWordElement;
 import io.openems.edge.bridge.modbus.api.element.WordOrder;
 import io.openems.edge.bridge.modbus.api.task.FC16WriteRegistersTask;
 import io.openems.edge.bridge.modbus.api.task.FC3ReadRegistersTask;
+import io.openems.edge.bridge.modbus.api.task.Task.ExecuteState;
 import io.openems.edge.bridge.modbus.sunspec.DefaultSunSpecModel;
 import io.openems.edge.bridge.modbus.sunspec.SunSpecModel;
 import io.openems.edge.bridge.modbus.sunspec.SunSpecPoint;
@@ -87,7 +98,7 @@ import io.openems.edge.pvinverter.api.ManagedSymmetricPvInverter;
     configurationPolicy = ConfigurationPolicy.REQUIRE,
     property = { "type=PRODUCTION" }
 )
-@EventTopics({ EdgeEventConstants.TOPIC_CYCLE_EXECUTE_WRITE, EdgeEventConstants.TOPIC_CYCLE_AFTER_CONTROLLERS })
+@EventTopics({ EdgeEventConstants.TOPIC_CYCLE_BEFORE_PROCESS_IMAGE, EdgeEventConstants.TOPIC_CYCLE_EXECUTE_WRITE, EdgeEventConstants.TOPIC_CYCLE_AFTER_CONTROLLERS })
 public class SolarEdgeSe9kPvInverterImpl extends AbstractSunSpecPvInverter implements
     SolarEdgeSe9kPvInverter, SunSpecPvInverter, ManagedSymmetricPvInverter, ElectricityMeter, ModbusComponent, OpenemsComponent, EventHandler, ModbusSlave
 {
@@ -95,6 +106,7 @@ public class SolarEdgeSe9kPvInverterImpl extends AbstractSunSpecPvInverter imple
 
     // SunSpec models supported by SE9K
     private static final int READ_FROM_MODBUS_BLOCK = 1;
+    private static final long DEFAULT_EPC_COMMAND_TIMEOUT = 30L;
     private static final Map<SunSpecModel, Priority> ACTIVE_MODELS = ImmutableMap.<SunSpecModel, Priority>builder()
         .put(DefaultSunSpecModel.S_1, Priority.LOW)
         .put(DefaultSunSpecModel.S_101, Priority.HIGH)
@@ -102,8 +114,45 @@ public class SolarEdgeSe9kPvInverterImpl extends AbstractSunSpecPvInverter imple
         .put(DefaultSunSpecModel.S_103, Priority.HIGH)
         .build();
 
-    // for limit handling
-    private WeightedMean activePowerLimitWeightedMean = new WeightedMean(15d, 15d, 15d, 15d, 20d, 30d, 40d, 50d, 75d, 100d);
+    // for limit handling, weights of the default weighted mean filter
+    private static final double[] LIMIT_WEIGHTS = { 15d, 15d, 15d, 15d, 20d, 30d, 40d, 50d, 75d, 100d };
+    private Filter activePowerLimitWeightedMean = new WeightedMean(LIMIT_WEIGHTS);
+    private boolean filterImmediateDecrease;
+    private LimitSmoothing limitSmoothing = LimitSmoothing.FILTER;
+    private RampLimiter activePowerLimitRamp = new RampLimiter(10d, 20d, true);
+
+    // EPC dynamic setpoints, written together by the FC16 task at 0xF322
+    private static final int EPC_ACTIVE_POWER_LIMIT = 0;
+    private static final int EPC_REACTIVE_POWER_REF = 1;
+    private static final int EPC_COSPHI_REF = 2;
+    private FloatSetpointGroup epcDynamicSetpoints = createEpcDynamicSetpoints(Duration.ZERO);
+
+    // EPC dynamic setpoints only change when written, so they are read
+    // after a write and then less often while nothing is written
+    private AdaptivePolling epcDynamicPolling = new AdaptivePolling(1);
+
+    // written active power limit is confirmed by one of the next three reads
+    private final WriteConfirmation epcWriteConfirmation = new WriteConfirmation(0.01d, 3);
+
+    // last read of the EPC dynamic active power limit, recorded by the
+    // modbus bridge thread and taken over before the process image
+    private final Object epcDynamicReadLock = new Object();
+    private boolean epcDynamicReadPending;
+    private Float epcDynamicReadValue;
+    private long epcDynamicReadAt;
+
+    // fields of the cycle trace, only dumped on demand
+    private static final int TRACE_ACTIVE_POWER_LIMIT = 0;
+    private static final int TRACE_OVERRIDE_ACTIVE_POWER = 1;
+    private static final int TRACE_EPC_MAX_ACTIVE_POWER = 2;
+    private static final int TRACE_TARGET_LIMIT = 3;
+    private static final int TRACE_FILTERED_LIMIT = 4;
+    private static final int TRACE_WRITTEN_LIMIT = 5;
+    private static final int TRACE_ACTIVE_POWER = 6;
+    private static final String[] TRACE_FIELDS = {
+        "activePowerLimit", "overrideActivePower", "epcMaxActivePower", "targetLimit", "filteredLimit", "writtenLimit", "activePower"
+    };
+    private CycleTrace cycleTrace;
 
     @Reference
     private ConfigurationAdmin cm;
@@ -112,6 +161,7 @@ public class SolarEdgeSe9kPvInverterImpl extends AbstractSunSpecPvInverter imple
     private boolean debugMode;
     private float reactivePowerRef;
     private float cosPhiRef;
+    private RegisterBlockPlanner registerBlockPlanner = new RegisterBlockPlanner(RegisterBlockPlanner.MODBUS_MAX_REGISTERS, 0);
 
     @Override
     @Reference(policy = ReferencePolicy.STATIC, policyOption = ReferencePolicyOption.GREEDY, cardinality = ReferenceCardinality.MANDATORY)
@@ -160,6 +210,25 @@ public class SolarEdgeSe9kPvInverterImpl extends AbstractSunSpecPvInverter imple
         this.debugMode = config.debugMode();
         this.reactivePowerRef = config.reactivePowerRef();
         this.cosPhiRef = config.cosPhiRef();
+        this.registerBlockPlanner = new RegisterBlockPlanner(config.maxRegistersPerRead(), config.readRoundTripCost());
+        this.epcDynamicPolling = new AdaptivePolling(config.epcPollingMaxInterval());
+
+        this.activePowerLimitWeightedMean = config.filterType().create(
+            LIMIT_WEIGHTS,
+            config.filterAlpha(),
+            config.filterWindow(),
+            config.filterProcessNoise(),
+            config.filterMeasurementNoise()
+        );
+
+        this.filterImmediateDecrease = config.filterImmediateDecrease();
+        this.limitSmoothing = config.limitSmoothing();
+        this.activePowerLimitRamp = new RampLimiter(config.rampUpRate(), config.rampDownRate(), config.rampImmediateDecrease());
+
+        this.epcDynamicSetpoints = createEpcDynamicSetpoints(Duration.ofSeconds(config.minWriteInterval()));
+        this.cycleTrace = (config.traceCycles() > 0) ? new CycleTrace(config.traceCycles(), TRACE_FIELDS) : null;
+
+        addVendorRegisterTasks();
     }
 
     @Override
@@ -177,6 +246,10 @@ public class SolarEdgeSe9kPvInverterImpl extends AbstractSunSpecPvInverter imple
         }
 
         switch (event.getTopic()) {
+            case EdgeEventConstants.TOPIC_CYCLE_BEFORE_PROCESS_IMAGE:
+                processTopicCycleBeforeProcessImage();
+                break;
+
             case EdgeEventConstants.TOPIC_CYCLE_EXECUTE_WRITE:
                 processTopicCycleExecuteWrite();
                 break;
@@ -190,16 +263,47 @@ public class SolarEdgeSe9kPvInverterImpl extends AbstractSunSpecPvInverter imple
         }
     }
 
+    // channels and the write confirmation are only updated by the cycle,
+    // a read of the bridge thread in between is taken over here
+    private void processTopicCycleBeforeProcessImage() {
+        boolean read;
+        Float readValue;
+        long readAt;
+        synchronized (epcDynamicReadLock) {
+            read = epcDynamicReadPending;
+            readValue = epcDynamicReadValue;
+            readAt = epcDynamicReadAt;
+            epcDynamicReadPending = false;
+        }
+
+        if (read) {
+            epcWriteConfirmation.read((readValue == null) ? Double.NaN : readValue, readAt);
+            reportActivePowerLimit(readValue);
+        }
+
+        updateEpcWriteConfirmation();
+    }
+
     private void processTopicCycleAfterControllers() {
         Optional<Float> activePowerLimitValue = this.getOverrideActivePowerChannel().getNextWriteValueAndReset();
         if (activePowerLimitValue.isPresent()) {
             _setOverrideActivePower(activePowerLimitValue.get());
         }
+
+        if (getTraceDumpChannel().getNextWriteValueAndReset().orElse(false)) {
+            dumpCycleTrace();
+        }
     }
 
     private void processTopicCycleExecuteWrite() {
         Optional<Integer> activePowerLimitValue = getActivePowerLimitChannel().getNextWriteValueAndReset();
 
+        if (cycleTrace != null) {
+            cycleTrace.begin(System.currentTimeMillis());
+            cycleTrace.set(TRACE_ACTIVE_POWER_LIMIT, activePowerLimitValue.orElse(null));
+            cycleTrace.set(TRACE_ACTIVE_POWER, getActivePower().get());
+        }
+
         if (readOnly) {
             logWarn(log, "Cannot set active power limit on read only pv-inverter.");
             _setReadOnlyModePvLimitFailed(activePowerLimitValue.isPresent());
@@ -224,48 +328,89 @@ public class SolarEdgeSe9kPvInverterImpl extends AbstractSunSpecPvInverter imple
         return "Limit: " + getEpcDynamicActivePowerLimit().orElse(null) + "|Power: " + getActivePower().orElse(null) + "|Status: " + getPcRrcrState().asString();
     }
 
-    @Override
-    protected void onSunSpecInitializationCompleted() {
-        super.onSunSpecInitializationCompleted();
-
+    // The SE9K specific registers are at fixed addresses outside of the
+    // SunSpec chain, so they are read from the start. Limits are still
+    // written only after the SunSpec discovery.
+    private void addVendorRegisterTasks() throws OpenemsException {
         logInfo(log, "Initializing SE9K specific registers...");
 
-        getModbusProtocol().addTasks(
-            new FC3ReadRegistersTask(0xF000, Priority.LOW,
-                m(SolarEdgeSe9kPvInverter.ChannelId.PC_RRCR_STATE,              new UnsignedWordElement(0xF000)),
-                m(SolarEdgeSe9kPvInverter.ChannelId.PC_ACTIVE_POWER_LIMIT,      new UnsignedWordElement(0xF001)),
-                m(SolarEdgeSe9kPvInverter.ChannelId.PC_COS_PHI,                 new FloatDoublewordElement(0xF002).wordOrder(WordOrder.LSWMSW))
-            ),
-
-            new FC3ReadRegistersTask(0xF102, Priority.LOW,
-                m(SolarEdgeSe9kPvInverter.ChannelId.PC_PWR_FRQ_DERATING_CONFIG, new SignedDoublewordElement(0xF102).wordOrder(WordOrder.LSWMSW)),
-                m(SolarEdgeSe9kPvInverter.ChannelId.PC_REACTIVE_PWR_CONFIG,     new SignedDoublewordElement(0xF104).wordOrder(WordOrder.LSWMSW)),
-                m(SolarEdgeSe9kPvInverter.ChannelId.PC_REACT_PW_ITER_TIME,      new UnsignedDoublewordElement(0xF106).wordOrder(WordOrder.LSWMSW))
-            ),
-
-            new FC3ReadRegistersTask(0xF142, Priority.LOW,
-                m(SolarEdgeSe9kPvInverter.ChannelId.PC_ADVANCED_PWR_CONTROL_EN, new SignedDoublewordElement(0xF142).wordOrder(WordOrder.LSWMSW)),
-                m(SolarEdgeSe9kPvInverter.ChannelId.PC_FRT_EN,                  new SignedDoublewordElement(0xF144).wordOrder(WordOrder.LSWMSW))
-            ),
-
-            new FC3ReadRegistersTask(0xF300, Priority.LOW,
-                m(SolarEdgeSe9kPvInverter.ChannelId.EPC_ENABLE_DPC,             new UnsignedWordElement(0xF300)),
-                new DummyRegisterElement(0xF301, 0xF303),
-                m(SolarEdgeSe9kPvInverter.ChannelId.EPC_MAX_ACTIVE_POWER,       new FloatDoublewordElement(0xF304).wordOrder(WordOrder.LSWMSW)),
-                m(SolarEdgeSe9kPvInverter.ChannelId.EPC_MAX_REACTIVE_POWER,     new FloatDoublewordElement(0xF306).wordOrder(WordOrder.LSWMSW)),
-                m(SolarEdgeSe9kPvInverter.ChannelId.EPC_ACTIVE_REACTIVE_PREF,   new UnsignedWordElement(0xF308)),
-                m(SolarEdgeSe9kPvInverter.ChannelId.EPC_COSPHI_Q_PREF,          new UnsignedWordElement(0xF309)),
-                new DummyRegisterElement(0xF30A, 0xF30B),
-                m(SolarEdgeSe9kPvInverter.ChannelId.EPC_ACTIVE_POWER_LIMIT,     new FloatDoublewordElement(0xF30C).wordOrder(WordOrder.LSWMSW)),
-                m(SolarEdgeSe9kPvInverter.ChannelId.EPC_REACTIVE_POWER_LIMIT,   new FloatDoublewordElement(0xF30E).wordOrder(WordOrder.LSWMSW)),
-                m(SolarEdgeSe9kPvInverter.ChannelId.EPC_COMMAND_TIMEOUT,        new UnsignedDoublewordElement(0xF310).wordOrder(WordOrder.LSWMSW))
-            ),
+        // vendor registers read with low priority, merged into as few
+        // requests as the cost model suggests
+        List<ModbusElement> lowPriorityElements = List.of(
+            m(SolarEdgeSe9kPvInverter.ChannelId.PC_RRCR_STATE,              new UnsignedWordElement(0xF000)),
+            m(SolarEdgeSe9kPvInverter.ChannelId.PC_ACTIVE_POWER_LIMIT,      new UnsignedWordElement(0xF001)),
+            m(SolarEdgeSe9kPvInverter.ChannelId.PC_COS_PHI,                 new FloatDoublewordElement(0xF002).wordOrder(WordOrder.LSWMSW)),
+
+            m(SolarEdgeSe9kPvInverter.ChannelId.PC_PWR_FRQ_DERATING_CONFIG, new SignedDoublewordElement(0xF102).wordOrder(WordOrder.LSWMSW)),
+            m(SolarEdgeSe9kPvInverter.ChannelId.PC_REACTIVE_PWR_CONFIG,     new SignedDoublewordElement(0xF104).wordOrder(WordOrder.LSWMSW)),
+            m(SolarEdgeSe9kPvInverter.ChannelId.PC_REACT_PW_ITER_TIME,      new UnsignedDoublewordElement(0xF106).wordOrder(WordOrder.LSWMSW)),
+
+            m(SolarEdgeSe9kPvInverter.ChannelId.PC_ADVANCED_PWR_CONTROL_EN, new SignedDoublewordElement(0xF142).wordOrder(WordOrder.LSWMSW)),
+            m(SolarEdgeSe9kPvInverter.ChannelId.PC_FRT_EN,                  new SignedDoublewordElement(0xF144).wordOrder(WordOrder.LSWMSW)),
+
+            m(SolarEdgeSe9kPvInverter.ChannelId.EPC_ENABLE_DPC,             new UnsignedWordElement(0xF300)),
+            m(SolarEdgeSe9kPvInverter.ChannelId.EPC_MAX_ACTIVE_POWER,       new FloatDoublewordElement(0xF304).wordOrder(WordOrder.LSWMSW)),
+            m(SolarEdgeSe9kPvInverter.ChannelId.EPC_MAX_REACTIVE_POWER,     new FloatDoublewordElement(0xF306).wordOrder(WordOrder.LSWMSW)),
+            m(SolarEdgeSe9kPvInverter.ChannelId.EPC_ACTIVE_REACTIVE_PREF,   new UnsignedWordElement(0xF308)),
+            m(SolarEdgeSe9kPvInverter.ChannelId.EPC_COSPHI_Q_PREF,          new UnsignedWordElement(0xF309)),
+            m(SolarEdgeSe9kPvInverter.ChannelId.EPC_ACTIVE_POWER_LIMIT,     new FloatDoublewordElement(0xF30C).wordOrder(WordOrder.LSWMSW)),
+            m(SolarEdgeSe9kPvInverter.ChannelId.EPC_REACTIVE_POWER_LIMIT,   new FloatDoublewordElement(0xF30E).wordOrder(WordOrder.LSWMSW)),
+            m(SolarEdgeSe9kPvInverter.ChannelId.EPC_COMMAND_TIMEOUT,        new UnsignedDoublewordElement(0xF310).wordOrder(WordOrder.LSWMSW))
+        );
+
+        List<List<ModbusElement>> lowPriorityBlocks = registerBlockPlanner.plan(
+            lowPriorityElements, element -> element.startAddress, element -> element.length
+        );
+
+        for (List<ModbusElement> block : lowPriorityBlocks) {
+            getModbusProtocol().addTask(createReadTask(block, Priority.LOW));
+        }
 
+        logInfo(log, "Reading " + lowPriorityElements.size() + " low priority registers with " + lowPriorityBlocks.size() + " requests.");
+
+        getModbusProtocol().addTasks(
+            // the hardware max is needed for the first limit, it is read with
+            // high priority until known and then only by the low priority task
+            new FC3ReadRegistersTask(0xF304, Priority.HIGH,
+                m(SolarEdgeSe9kPvInverter.ChannelId.EPC_MAX_ACTIVE_POWER, new FloatDoublewordElement(0xF304).wordOrder(WordOrder.LSWMSW))
+            ) {
+                @Override
+                public ExecuteState execute(AbstractModbusBridge bridge) {
+                    if (getEpcMaxActivePowerChannel().getNextValue().isDefined()) {
+                        return ExecuteState.NO_OP;
+                    }
+
+                    return super.execute(bridge);
+                }
+            },
+
+            // skipped cycles leave more time of the read phase to the power readings
             new FC3ReadRegistersTask(0xF322, Priority.HIGH,
                 m(SolarEdgeSe9kPvInverter.ChannelId.EPC_DYNAMIC_ACTIVE_POWER_LIMIT, new FloatDoublewordElement(0xF322).wordOrder(WordOrder.LSWMSW)),
                 m(SolarEdgeSe9kPvInverter.ChannelId.EPC_DYNAMIC_REACTIVE_POWER_REF, new FloatDoublewordElement(0xF324).wordOrder(WordOrder.LSWMSW)),
                 m(SolarEdgeSe9kPvInverter.ChannelId.EPC_DYNAMIC_COSPHI_REF,         new FloatDoublewordElement(0xF326).wordOrder(WordOrder.LSWMSW))
-            ),
+            ) {
+                @Override
+                public ExecuteState execute(AbstractModbusBridge bridge) {
+                    if (!epcDynamicPolling.poll()) {
+                        return ExecuteState.NO_OP;
+                    }
+
+                    ExecuteState state = super.execute(bridge);
+                    if (state == ExecuteState.OK) {
+                        Float value = getEpcDynamicActivePowerLimitChannel().getNextValue().get();
+                        epcDynamicPolling.read((value == null) ? Double.NaN : value);
+
+                        synchronized (epcDynamicReadLock) {
+                            epcDynamicReadPending = true;
+                            epcDynamicReadValue = value;
+                            epcDynamicReadAt = System.nanoTime();
+                        }
+                    }
+
+                    return state;
+                }
+            },
 
             new FC16WriteRegistersTask(0xF322,
                 m(SolarEdgeSe9kPvInverter.ChannelId.EPC_DYNAMIC_ACTIVE_POWER_LIMIT, new FloatDoublewordElement(0xF322).wordOrder(WordOrder.LSWMSW)),
@@ -277,6 +422,24 @@ public class SolarEdgeSe9kPvInverterImpl extends AbstractSunSpecPvInverter imple
         logInfo(log, "Initializing SE9K specific registers finished.");
     }
 
+    // one read task for a planned block, gaps are filled with dummy registers
+    private static FC3ReadRegistersTask createReadTask(List<ModbusElement> block, Priority priority) {
+        List<ModbusElement> elements = new ArrayList<>(block.size() * 2);
+
+        int startAddress = block.get(0).startAddress;
+        int nextAddress = startAddress;
+        for (ModbusElement element : block) {
+            if (element.startAddress > nextAddress) {
+                elements.add(new DummyRegisterElement(nextAddress, element.startAddress - 1));
+            }
+
+            elements.add(element);
+            nextAddress = element.startAddress + element.length;
+        }
+
+        return new FC3ReadRegistersTask(startAddress, priority, elements.toArray(new ModbusElement[0]));
+    }
+
     @Override
     public ModbusSlaveTable getModbusSlaveTable(AccessMode accessMode) {
         return new ModbusSlaveTable(
@@ -287,83 +450,131 @@ public class SolarEdgeSe9kPvInverterImpl extends AbstractSunSpecPvInverter imple
         );
     }
 
-    DiffTimeApply<Float> diffTimeApplyEpcDynamicActivePowerLimit = new DiffTimeApply<>(0.5d) {
-        @Override
-        public void accept(Float value) throws OpenemsNamedException {
-            _setEpcDynamicActivePowerLimit(value);
-            setEpcDynamicActivePowerLimit(value);
-        }
-    };
+    private FloatSetpointGroup createEpcDynamicSetpoints(Duration minWriteInterval) {
+        return new FloatSetpointGroup(minWriteInterval, 0.5d, 0.5d, 0.01d) {
+            @Override
+            public void accept(float[] values) throws OpenemsNamedException {
+                trace(TRACE_WRITTEN_LIMIT, values[EPC_ACTIVE_POWER_LIMIT]);
 
-    DiffTimeApply<Float> diffTimeApplyEpcDynamicReactivePowerLimit = new DiffTimeApply<>(0.5d) {
-        @Override
-        public void accept(Float value) throws OpenemsNamedException {
-            _setEpcDynamicReactivePowerLimit(value);
-            setEpcDynamicReactivePowerLimit(value);
-        }
-    };
+                _setEpcDynamicActivePowerLimit(values[EPC_ACTIVE_POWER_LIMIT]);
+                setEpcDynamicActivePowerLimit(values[EPC_ACTIVE_POWER_LIMIT]);
 
-    DiffTimeApply<Float> diffTimeApplyaEpcDynamicCosPhiRef = new DiffTimeApply<>(0.01d) {
-        @Override
-        public void accept(Float value) throws OpenemsNamedException {
-            _setEpcDynamicCosPhiRef(value);
-            setEpcDynamicCosPhiRef(value);
-        }
-    };
+                _setEpcDynamicReactivePowerLimit(values[EPC_REACTIVE_POWER_REF]);
+                setEpcDynamicReactivePowerLimit(values[EPC_REACTIVE_POWER_REF]);
+
+                _setEpcDynamicCosPhiRef(values[EPC_COSPHI_REF]);
+                setEpcDynamicCosPhiRef(values[EPC_COSPHI_REF]);
+
+                // confirm the write with the next read
+                epcWriteConfirmation.written(values[EPC_ACTIVE_POWER_LIMIT], System.nanoTime());
+                epcDynamicPolling.trigger();
+            }
+        };
+    }
 
     public void applyEpcDynamicLimits(Optional<Integer> activePowerLimitValue) throws OpenemsNamedException {
-        applyEpcDynamicActivePowerLimit(activePowerLimitValue);
+        if (!applyEpcDynamicActivePowerLimit(activePowerLimitValue)) {
+            return;
+        }
+
         applyEpcDynamicReactivePowerLimit();
         applyEpcDynamicCosPhiRef();
+
+        // one combined write if any setpoint changed or the keepalive is due
+        epcDynamicSetpoints.apply(getEpcCommandTimeout().orElse(DEFAULT_EPC_COMMAND_TIMEOUT));
     }
 
-    public void applyEpcDynamicActivePowerLimit(Optional<Integer> activePowerLimitValue) throws OpenemsNamedException {
+    // returns false if nothing can be written yet
+    public boolean applyEpcDynamicActivePowerLimit(Optional<Integer> activePowerLimitValue) throws OpenemsNamedException {
 
         // apply override
         Value<Float> overrideActivePowerValue = getOverrideActivePower();
         float overrideActivePower = overrideActivePowerValue.orElse(-1f);
         if (overrideActivePower >= 0) {
             overrideActivePower = TypeUtils.fitWithin(0.0f, 100.0f, overrideActivePower);
-            diffTimeApplyEpcDynamicActivePowerLimit.nextValue(getEpcCommandTimeout().asOptional(), overrideActivePower);
-            return;
+            epcDynamicSetpoints.set(EPC_ACTIVE_POWER_LIMIT, overrideActivePower);
+            trace(TRACE_OVERRIDE_ACTIVE_POWER, overrideActivePower);
+            return true;
+        }
+
+        // get hardware max, without it neither a limit can be converted nor
+        // 100% be written, it would lift a limit the inverter still holds
+        float epcMaxActivePower = getEpcMaxActivePower().orElse(0f);
+        if (epcMaxActivePower <= 0) {
+            if (activePowerLimitValue.isPresent()) {
+                throw new OpenemsException(getEpcMaxActivePowerChannel().channelId() + " has no value.");
+            }
+
+            logDebug("{} has no value, nothing written.", getEpcMaxActivePowerChannel().channelId());
+            return false;
         }
+        trace(TRACE_EPC_MAX_ACTIVE_POWER, epcMaxActivePower);
 
         // calculate limit
         double epcDynamicActivePowerLimit = 100.0d;
         if (activePowerLimitValue.isPresent()) {
-
-            // get hardware max
-            Value<Float> epcMaxActivePowerValue = getEpcMaxActivePower();
-            if (!epcMaxActivePowerValue.isDefined()) {
-                logWarn(log, getEpcMaxActivePowerChannel().channelId() + " has no value.");
-            }
-
             float activePowerLimit = activePowerLimitValue.get();
-            float epcMaxActivePower = epcMaxActivePowerValue.orElse(activePowerLimit);
             epcDynamicActivePowerLimit = activePowerLimit * 100 / epcMaxActivePower;
         }
-        logDebug("epcDynamicActivePowerLimit " + epcDynamicActivePowerLimit);
+        logDebug("epcDynamicActivePowerLimit {}", epcDynamicActivePowerLimit);
 
         // fit in boundaries
         epcDynamicActivePowerLimit = TypeUtils.fitWithin(1.0d, 100.0d, epcDynamicActivePowerLimit);
-        logDebug("epcDynamicActivePowerLimit " + epcDynamicActivePowerLimit);
+        logDebug("epcDynamicActivePowerLimit {}", epcDynamicActivePowerLimit);
+        trace(TRACE_TARGET_LIMIT, epcDynamicActivePowerLimit);
+
+        // apply mean or ramp
+        epcDynamicActivePowerLimit = switch (limitSmoothing) {
+            case RAMP -> activePowerLimitRamp.next(epcDynamicActivePowerLimit, System.nanoTime());
+            case FILTER -> filterActivePowerLimit(epcDynamicActivePowerLimit);
+        };
+        logDebug("epcDynamicActivePowerLimit {}", epcDynamicActivePowerLimit);
+        trace(TRACE_FILTERED_LIMIT, epcDynamicActivePowerLimit);
+
+        epcDynamicSetpoints.set(EPC_ACTIVE_POWER_LIMIT, (float)epcDynamicActivePowerLimit);
+        return true;
+    }
 
-        // apply mean
-        activePowerLimitWeightedMean.addValue(epcDynamicActivePowerLimit, 3, 1);
-        epcDynamicActivePowerLimit = activePowerLimitWeightedMean.getMean();
-        logDebug("epcDynamicActivePowerLimit " + epcDynamicActivePowerLimit);
+    private double filterActivePowerLimit(double epcDynamicActivePowerLimit) {
+        if (filterImmediateDecrease && epcDynamicActivePowerLimit < activePowerLimitWeightedMean.getValue()) {
+            activePowerLimitWeightedMean.clear();
+        }
 
-        diffTimeApplyEpcDynamicActivePowerLimit.nextValue(getEpcCommandTimeout().asOptional(), (float)epcDynamicActivePowerLimit);
+        return activePowerLimitWeightedMean.nextValue(epcDynamicActivePowerLimit, 3, 1);
     }
 
-    private void applyEpcDynamicReactivePowerLimit() throws OpenemsNamedException {
+    // The limit read back from the inverter in W is the read value of the
+    // active power limit, so controllers see the limit actually applied.
+    private void reportActivePowerLimit(Float epcDynamicActivePowerLimit) {
+        Float epcMaxActivePower = getEpcMaxActivePowerChannel().getNextValue().get();
+        if (epcDynamicActivePowerLimit == null || epcMaxActivePower == null) {
+            getActivePowerLimitChannel().setNextValue(null);
+            return;
+        }
+
+        getActivePowerLimitChannel().setNextValue(Math.round(epcDynamicActivePowerLimit * epcMaxActivePower / 100f));
+    }
+
+    private void updateEpcWriteConfirmation() {
+        if (epcWriteConfirmation.takeRetry()) {
+            logWarn(log, "Written active power limit was not confirmed by the inverter, writing again.");
+            epcDynamicSetpoints.reset();
+        }
+
+        channel(SolarEdgeSe9kPvInverter.ChannelId.EPC_WRITE_LATENCY_MIN).setNextValue(epcWriteConfirmation.getMinLatency());
+        channel(SolarEdgeSe9kPvInverter.ChannelId.EPC_WRITE_LATENCY_AVG).setNextValue(epcWriteConfirmation.getAvgLatency());
+        channel(SolarEdgeSe9kPvInverter.ChannelId.EPC_WRITE_LATENCY_MAX).setNextValue(epcWriteConfirmation.getMaxLatency());
+        channel(SolarEdgeSe9kPvInverter.ChannelId.EPC_WRITE_MISMATCH_COUNT).setNextValue(epcWriteConfirmation.getMismatchCount());
+    }
+
+    private void applyEpcDynamicReactivePowerLimit() {
         float epcDynamicReactivePowerLimit = TypeUtils.fitWithin(0.0f, 100.0f, reactivePowerRef);
-        diffTimeApplyEpcDynamicReactivePowerLimit.nextValue(getEpcCommandTimeout().asOptional(), epcDynamicReactivePowerLimit);
+        epcDynamicSetpoints.set(EPC_REACTIVE_POWER_REF, epcDynamicReactivePowerLimit);
     }
 
-    private void applyEpcDynamicCosPhiRef() throws OpenemsNamedException {
+    private void applyEpcDynamicCosPhiRef() {
         float epcDynamicCosPhiRef = TypeUtils.fitWithin(-1.0f, 1.0f, cosPhiRef);
-        diffTimeApplyaEpcDynamicCosPhiRef.nextValue(getEpcCommandTimeout().asOptional(), epcDynamicCosPhiRef);
+        epcDynamicSetpoints.set(EPC_COSPHI_REF, epcDynamicCosPhiRef);
     }
 
 
@@ -373,6 +584,28 @@ public class SolarEdgeSe9kPvInverterImpl extends AbstractSunSpecPvInverter imple
         }
     }
 
+    // formatted like slf4j, only in debug mode
+    public void logDebug(String format, Object... arguments) {
+        if (debugMode) {
+            logInfo(log, MessageFormatter.arrayFormat(format, arguments).getMessage());
+        }
+    }
+
+    private void trace(int field, double value) {
+        if (cycleTrace != null) {
+            cycleTrace.set(field, value);
+        }
+    }
+
+    private void dumpCycleTrace() {
+        if (cycleTrace == null) {
+            logWarn(log, "Cycle trace is disabled.");
+            return;
+        }
+
+        logInfo(log, "Cycle trace " + cycleTrace.toJson());
+    }
+
 
     // Although values can be read from theses fields the SolarEdge Se9k 
     // documentation does not mention them and values seem to be not
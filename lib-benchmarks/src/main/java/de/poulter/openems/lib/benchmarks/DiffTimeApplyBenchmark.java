@@ -0,0 +1,107 @@
+/*
+ *   OpenEMS Addons Lib Benchmarks
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.benchmarks;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.poulter.openems.lib.utils.DiffTimeApply;
+import de.poulter.openems.lib.utils.FloatDiffTimeApply;
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+
+// The log level is raised to warn so the console is not flooded, the
+// log messages are still built as they are in production.
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+public class DiffTimeApplyBenchmark {
+
+    // false: value is stable and the write is suppressed (the common case)
+    // true: value changes more than the diff on every call
+    @Param({ "false", "true" })
+    private boolean changing;
+
+    private final Optional<Long> timeout = Optional.of(60L);
+
+    private DiffTimeApply<Float> diffTimeApply;
+    private FloatDiffTimeApply floatDiffTimeApply;
+    private float value;
+    private float applied;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        diffTimeApply = new DiffTimeApply<>(0.5d) {
+            @Override
+            public void accept(Float value) throws OpenemsNamedException {
+                applied = value;
+            }
+        };
+
+        floatDiffTimeApply = new FloatDiffTimeApply(0.5d) {
+            @Override
+            public void accept(float value) throws OpenemsNamedException {
+                applied = value;
+            }
+        };
+
+        value = 50f;
+    }
+
+    @Benchmark
+    public float nextValue() throws OpenemsNamedException {
+        if (changing) {
+            value = (value > 90f) ? 10f : value + 1f;
+        }
+
+        diffTimeApply.nextValue(timeout, value);
+        return applied;
+    }
+
+    @Benchmark
+    public float floatNextValue() throws OpenemsNamedException {
+        if (changing) {
+            value = (value > 90f) ? 10f : value + 1f;
+        }
+
+        floatDiffTimeApply.nextValue(60L, value);
+        return applied;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *   OpenEMS Addons Lib Benchmarks
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.poulter.openems.lib.mean.IntWeightedMean;
+import de.poulter.openems.lib.mean.WeightedMean;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WeightedMeanBenchmark {
+
+    private static final int VALUES = 1024;
+
+    @Param({ "10", "100", "1000" })
+    private int windowSize;
+
+    private WeightedMean weightedMean;
+    private IntWeightedMean intWeightedMean;
+    private double[] values;
+    private int[] intValues;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        double[] weights = new double[windowSize];
+        int[] intWeights = new int[windowSize];
+        for (int i = 0; i < windowSize; i++) {
+            weights[i] = 15d + i;
+            intWeights[i] = 15 + i;
+        }
+
+        // power values jumping around like a pv inverter on a cloudy day
+        Random random = new Random(42);
+        values = new double[VALUES];
+        intValues = new int[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            intValues[i] = 1000 + random.nextInt(19000);
+            values[i] = intValues[i];
+        }
+
+        weightedMean = new WeightedMean(weights);
+        weightedMean.addValue(values[0]);
+        intWeightedMean = new IntWeightedMean(intWeights);
+        intWeightedMean.addValue(intValues[0]);
+        index = 0;
+    }
+
+    private double nextInput() {
+        index = (index + 1) & (VALUES - 1);
+        return values[index];
+    }
+
+    @Benchmark
+    public double nextValue() {
+        return weightedMean.nextValue(nextInput());
+    }
+
+    @Benchmark
+    public int intNextValue() {
+        index = (index + 1) & (VALUES - 1);
+        return intWeightedMean.nextValue(intValues[index]);
+    }
+
+    @Benchmark
+    public void addValueLowerHigher() {
+        weightedMean.addValue(nextInput(), 3, 1);
+    }
+
+    @Benchmark
+    public double getMean() {
+        return weightedMean.getMean();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.control;
+
+// Discrete PID controller with feed forward, called once per cycle, so the
+// gains are per cycle. The output is feedForward + P + I + D, limited to
+// [outputMin, outputMax]. The derivative uses the change of the error.
+//
+// Anti-windup by conditional integration: while the output is saturated
+// and the error would drive it further into saturation, the integral is
+// frozen. So the controller reacts immediately once the error changes
+// sign, instead of first unwinding a large integral.
+
+public class PidController {
+
+    private final double kp;
+    private final double ki;
+    private final double kd;
+
+    private double outputMin;
+    private double outputMax;
+
+    private double integral;
+    private double lastError;
+    private boolean initialized;
+
+    public PidController(double kp, double ki, double kd, double outputMin, double outputMax) {
+        if (!Double.isFinite(kp) || !Double.isFinite(ki) || !Double.isFinite(kd) || kp < 0d || ki < 0d || kd < 0d) {
+            throw new IllegalArgumentException("Invalid gains kp=" + kp + ", ki=" + ki + ", kd=" + kd + ".");
+        }
+
+        this.kp = kp;
+        this.ki = ki;
+        this.kd = kd;
+
+        setOutputLimits(outputMin, outputMax);
+    }
+
+    public void setOutputLimits(double outputMin, double outputMax) {
+        if (!(outputMax >= outputMin)) {
+            throw new IllegalArgumentException("Invalid output limits [" + outputMin + ", " + outputMax + "].");
+        }
+
+        this.outputMin = outputMin;
+        this.outputMax = outputMax;
+
+        // the integral alone never needs to exceed the output range
+        double range = outputMax - outputMin;
+        integral = Math.max(-range, Math.min(range, integral));
+    }
+
+    public void reset() {
+        integral = 0d;
+        lastError = 0d;
+        initialized = false;
+    }
+
+    public double getIntegral() {
+        return integral;
+    }
+
+    public double update(double error, double feedForward) {
+        double derivative = initialized ? kd * (error - lastError) : 0d;
+        lastError = error;
+        initialized = true;
+
+        double proportional = kp * error;
+        double candidate = integral + ki * error;
+        double output = feedForward + proportional + candidate + derivative;
+
+        boolean saturatedHigh = output > outputMax && error > 0d;
+        boolean saturatedLow = output < outputMin && error < 0d;
+        if (!saturatedHigh && !saturatedLow) {
+            double range = outputMax - outputMin;
+            integral = Math.max(-range, Math.min(range, candidate));
+        }
+
+        output = feedForward + proportional + integral + derivative;
+        return Math.max(outputMin, Math.min(outputMax, output));
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.control;
+
+// Slew rate limiter, the value follows its target with at most upRate
+// per second when rising and downRate per second when falling. The step
+// depends on the time elapsed since the last call and not on the amount
+// of calls, so it is independent of the cycle time. With
+// immediateDecrease a falling target is followed at once, e.g. to apply
+// a curtailment without delay. The first value after clear() is taken
+// as is. Times are nanoseconds, e.g. from System.nanoTime().
+
+public class RampLimiter {
+
+    private final double upRate;
+    private final double downRate;
+    private final boolean immediateDecrease;
+
+    private double value;
+    private long lastAt;
+    private boolean initialized;
+
+    public RampLimiter(double upRate, double downRate, boolean immediateDecrease) {
+        if (!(upRate > 0d) || !(downRate > 0d)) {
+            throw new IllegalArgumentException("Invalid rates up=" + upRate + ", down=" + downRate + ".");
+        }
+
+        this.upRate = upRate;
+        this.downRate = downRate;
+        this.immediateDecrease = immediateDecrease;
+    }
+
+    public void clear() {
+        initialized = false;
+        value = 0d;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public double next(double target, long now) {
+        if (!initialized) {
+            value = target;
+            lastAt = now;
+            initialized = true;
+            return value;
+        }
+
+        double elapsed = Math.max(0L, now - lastAt) / 1_000_000_000d;
+        lastAt = now;
+
+        if (target > value) {
+            value = Math.min(target, value + upRate * elapsed);
+
+        } else if (target < value) {
+            value = immediateDecrease ? target : Math.max(target, value - downRate * elapsed);
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.filter;
+
+// Exponential moving average, the first value initializes the average.
+// A higher alpha follows the input faster.
+
+public class ExponentialMovingAverage implements Filter {
+
+    private final double alpha;
+
+    private boolean initialized;
+    private double value;
+
+    public ExponentialMovingAverage(double alpha) {
+        if (!(alpha > 0d && alpha <= 1d)) {
+            throw new IllegalArgumentException("Alpha " + alpha + " is not within (0, 1].");
+        }
+
+        this.alpha = alpha;
+    }
+
+    @Override
+    public void clear() {
+        initialized = false;
+        value = 0d;
+    }
+
+    @Override
+    public void addValue(double value, int count) {
+        if (count <= 0) return;
+
+        if (!initialized) {
+            this.value = value;
+            initialized = true;
+            return;
+        }
+
+        // adding the same value count times equals one step with 1 - (1 - alpha)^count
+        double effectiveAlpha = (count == 1) ? alpha : 1d - Math.pow(1d - alpha, count);
+        this.value += effectiveAlpha * (value - this.value);
+    }
+
+    @Override
+    public double getValue() {
+        return value;
+    }
+}
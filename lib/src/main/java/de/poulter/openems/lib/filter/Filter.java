@@ -0,0 +1,75 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.filter;
+
+// Smoothing filter for values that are fed once per cycle. Adding a
+// value count times means it is observed count times in a row. The cost
+// of this is bounded by the filter's window, never by count: a window
+// filter touches at most its window size values, a stateless filter like
+// the exponential moving average does a single update.
+
+public interface Filter {
+
+    public void clear();
+
+    public void addValue(double value, int count);
+
+    // current filter output, 0 as long as no value was added
+    public double getValue();
+
+    public default void addValue(double value) {
+        addValue(value, 1);
+    }
+
+    // Values more than 10% above the current output are added countHigher
+    // times, values more than 10% below countLower times.
+    public default void addValue(double value, int countLower, int countHigher) {
+        double currentValue = getValue();
+
+        if ((currentValue * 1.1) < value) {
+            addValue(value, countHigher);
+
+        } else if ((currentValue * 0.9) > value) {
+            addValue(value, countLower);
+
+        } else {
+            addValue(value);
+        }
+    }
+
+    public default double nextValue(double value, int countLower, int countHigher) {
+        addValue(value, countLower, countHigher);
+        return getValue();
+    }
+
+    public default double nextValue(double value, int count) {
+        addValue(value, count);
+        return getValue();
+    }
+
+    public default double nextValue(double value) {
+        addValue(value);
+        return getValue();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.filter;
+
+import de.poulter.openems.lib.mean.IntWeightedMean;
+import de.poulter.openems.lib.mean.WeightedMean;
+
+public enum FilterType {
+
+    WEIGHTED_MEAN,
+    EXPONENTIAL_MOVING_AVERAGE,
+    SLIDING_MEDIAN,
+    KALMAN
+
+    ;
+
+    public Filter create(double[] weights, double alpha, int window, double processNoise, double measurementNoise) {
+        return switch (this) {
+            case WEIGHTED_MEAN -> new WeightedMean(weights);
+            case EXPONENTIAL_MOVING_AVERAGE -> new ExponentialMovingAverage(alpha);
+            case SLIDING_MEDIAN -> new SlidingMedian(window);
+            case KALMAN -> new KalmanFilter(processNoise, measurementNoise);
+        };
+    }
+
+    public IntFilter createInt(int[] weights, double alpha, int window, double processNoise, double measurementNoise) {
+        return switch (this) {
+            case WEIGHTED_MEAN -> new IntWeightedMean(weights);
+            case EXPONENTIAL_MOVING_AVERAGE -> IntFilter.of(new ExponentialMovingAverage(alpha));
+            case SLIDING_MEDIAN -> IntFilter.of(new SlidingMedian(window));
+            case KALMAN -> IntFilter.of(new KalmanFilter(processNoise, measurementNoise));
+        };
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.filter;
+
+// Integer counterpart of Filter for values like power in watts. Results
+// are rounded to the nearest integer, halves are rounded up.
+
+public interface IntFilter {
+
+    public void clear();
+
+    public void addValue(int value, int count);
+
+    // current filter output, 0 as long as no value was added
+    public int getValue();
+
+    public default void addValue(int value) {
+        addValue(value, 1);
+    }
+
+    // Values more than 10% above the current output are added countHigher
+    // times, values more than 10% below countLower times.
+    public default void addValue(int value, int countLower, int countHigher) {
+        long currentValue = getValue();
+
+        if (currentValue * 11 < value * 10L) {
+            addValue(value, countHigher);
+
+        } else if (currentValue * 9 > value * 10L) {
+            addValue(value, countLower);
+
+        } else {
+            addValue(value);
+        }
+    }
+
+    public default int nextValue(int value, int countLower, int countHigher) {
+        addValue(value, countLower, countHigher);
+        return getValue();
+    }
+
+    public default int nextValue(int value, int count) {
+        addValue(value, count);
+        return getValue();
+    }
+
+    public default int nextValue(int value) {
+        addValue(value);
+        return getValue();
+    }
+
+    // uses a floating point filter for integer values
+    public static IntFilter of(Filter filter) {
+        return new IntFilter() {
+
+            @Override
+            public void clear() {
+                filter.clear();
+            }
+
+            @Override
+            public void addValue(int value, int count) {
+                filter.addValue(value, count);
+            }
+
+            @Override
+            public int getValue() {
+                return (int) Math.round(filter.getValue());
+            }
+        };
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.filter;
+
+// One dimensional Kalman filter for a value that follows a random walk.
+// processNoise is the expected variance of the real value between two
+// cycles, measurementNoise the variance of a single measurement. A high
+// ratio of processNoise to measurementNoise follows the input faster.
+
+public class KalmanFilter implements Filter {
+
+    private final double processNoise;
+    private final double measurementNoise;
+
+    private boolean initialized;
+    private double estimate;
+    private double errorCovariance;
+
+    public KalmanFilter(double processNoise, double measurementNoise) {
+        if (!(processNoise >= 0d && Double.isFinite(processNoise))) {
+            throw new IllegalArgumentException("Invalid process noise " + processNoise + ".");
+        }
+
+        if (!(measurementNoise > 0d && Double.isFinite(measurementNoise))) {
+            throw new IllegalArgumentException("Invalid measurement noise " + measurementNoise + ".");
+        }
+
+        this.processNoise = processNoise;
+        this.measurementNoise = measurementNoise;
+    }
+
+    @Override
+    public void clear() {
+        initialized = false;
+        estimate = 0d;
+        errorCovariance = 0d;
+    }
+
+    @Override
+    public void addValue(double value, int count) {
+        if (count <= 0) return;
+
+        if (!initialized) {
+            estimate = value;
+            errorCovariance = measurementNoise;
+            initialized = true;
+            return;
+        }
+
+        // count identical measurements are one measurement with variance / count
+        double noise = measurementNoise / count;
+
+        errorCovariance += processNoise;
+        double gain = errorCovariance / (errorCovariance + noise);
+        estimate += gain * (value - estimate);
+        errorCovariance *= (1d - gain);
+    }
+
+    @Override
+    public double getValue() {
+        return estimate;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.filter;
+
+import java.util.Arrays;
+
+// Median of the last size values, rejects single outliers. Values are kept
+// in insertion order in a ring buffer and additionally in a sorted array
+// which is updated in place, so an update costs one binary search and one
+// array shift. Windows are expected to be small (3 to 15 values).
+
+public class SlidingMedian implements Filter {
+
+    private final int size;
+    private final double[] values;
+    private final double[] sorted;
+
+    private int head;
+    private boolean initialized;
+
+    public SlidingMedian(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Window size " + size + " must be at least 1.");
+        }
+
+        this.size = size;
+        this.values = new double[size];
+        this.sorted = new double[size];
+    }
+
+    @Override
+    public void clear() {
+        initialized = false;
+        head = 0;
+    }
+
+    @Override
+    public void addValue(double value, int count) {
+        if (count <= 0) return;
+
+        if (!initialized || count >= size) {
+            Arrays.fill(values, value);
+            Arrays.fill(sorted, value);
+            head = 0;
+            initialized = true;
+            return;
+        }
+
+        // count < size here, so this replaces at most size - 1 values
+        for (int i = 0; i < count; i++) {
+            replace(values[head], value);
+            values[head] = value;
+            head = (head + 1 == size) ? 0 : head + 1;
+        }
+    }
+
+    private void replace(double oldValue, double newValue) {
+        int oldIndex = Arrays.binarySearch(sorted, oldValue);
+        int newIndex = Arrays.binarySearch(sorted, newValue);
+        if (newIndex < 0) newIndex = -newIndex - 1;
+
+        if (newIndex > oldIndex) {
+            newIndex--;
+            System.arraycopy(sorted, oldIndex + 1, sorted, oldIndex, newIndex - oldIndex);
+
+        } else if (newIndex < oldIndex) {
+            System.arraycopy(sorted, newIndex, sorted, newIndex + 1, oldIndex - newIndex);
+        }
+
+        sorted[newIndex] = newValue;
+    }
+
+    @Override
+    public double getValue() {
+        if (!initialized) return 0d;
+
+        int middle = size >> 1;
+        if ((size & 1) == 1) {
+            return sorted[middle];
+        }
+
+        return (sorted[middle - 1] + sorted[middle]) / 2d;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.mean;
+
+import de.poulter.openems.lib.filter.Filter;
+
+// Single writer, multiple reader variant of WeightedMean. Values are added
+// by one producer thread, e.g. a channel onSetNextValue callback on the
+// Modbus bridge worker, while the mean can be read from any thread.
+//
+// The writer owns the ring buffer and publishes every new mean through a
+// volatile field, so readers never see the buffer and never block. All
+// mutating methods (addValue, clear) must be called from the writer thread.
+
+public class ConcurrentWeightedMean implements Filter {
+
+    // only accessed by the writer thread
+    private final WeightedMean weightedMean;
+
+    private volatile double mean;
+
+    public ConcurrentWeightedMean(double... weights) {
+        this.weightedMean = new WeightedMean(weights);
+    }
+
+    @Override
+    public void clear() {
+        weightedMean.clear();
+        mean = 0d;
+    }
+
+    @Override
+    public void addValue(double value, int count) {
+        weightedMean.addValue(value, count);
+        mean = weightedMean.getMean();
+    }
+
+    @Override
+    public void addValue(double value) {
+        weightedMean.addValue(value);
+        mean = weightedMean.getMean();
+    }
+
+    @Override
+    public double getValue() {
+        return mean;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.mean;
+
+import java.util.Arrays;
+
+import de.poulter.openems.lib.filter.IntFilter;
+
+// Fixed point variant of WeightedMean for integer values. The weighted sum
+// is calculated exactly in a long accumulator with integer weights, so no
+// floating point math is used and rounding is the same on every platform:
+// the mean is rounded to the nearest integer, halves are rounded up.
+
+public class IntWeightedMean implements IntFilter {
+
+    private final int[] weights;
+    private final long weightsSum;
+    private final int[] values;
+    private final int size;
+
+    private int head;
+    private boolean initialized;
+    private boolean dirty;
+    private int mean;
+
+    public IntWeightedMean(int... weights) {
+        if (weights == null || weights.length == 0) {
+            throw new IllegalArgumentException("At least one weight is required.");
+        }
+
+        long sum = 0;
+        for (int weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Invalid weight " + weight + ".");
+            }
+
+            sum += weight;
+        }
+
+        if (sum <= 0) {
+            throw new IllegalArgumentException("Sum of weights must be positive.");
+        }
+
+        this.weights = weights.clone();
+        this.weightsSum = sum;
+        this.size = weights.length;
+        this.values = new int[size];
+    }
+
+    @Override
+    public void clear() {
+        initialized = false;
+        dirty = false;
+        mean = 0;
+        head = 0;
+    }
+
+    // Adding a value count times overwrites the oldest min(count, size)
+    // values, so this is bounded by the window size and not by count.
+    @Override
+    public void addValue(int value, int count) {
+        if (count <= 0) return;
+
+        if (!initialized || count >= size) {
+            Arrays.fill(values, value);
+            head = 0;
+            initialized = true;
+            dirty = true;
+            return;
+        }
+
+        int end = head + count;
+        if (end <= size) {
+            Arrays.fill(values, head, end, value);
+
+        } else {
+            Arrays.fill(values, head, size, value);
+            Arrays.fill(values, 0, end - size, value);
+        }
+
+        head = (end >= size) ? end - size : end;
+        dirty = true;
+    }
+
+    @Override
+    public void addValue(int value) {
+        if (!initialized) {
+            Arrays.fill(values, value);
+            head = 0;
+            initialized = true;
+        }
+
+        // head always points to the oldest value
+        values[head] = value;
+        head = (head + 1 == size) ? 0 : head + 1;
+        dirty = true;
+    }
+
+    @Override
+    public int getValue() {
+        return getMean();
+    }
+
+    public int getMean() {
+        if (!initialized) return 0;
+
+        if (dirty) {
+            mean = calculateMean();
+            dirty = false;
+        }
+
+        return mean;
+    }
+
+    private int calculateMean() {
+        long weightedSum = 0;
+        int w = 0;
+        for (int i = head; i < size; i++) weightedSum += (long) values[i] * weights[w++];
+        for (int i = 0; i < head; i++) weightedSum += (long) values[i] * weights[w++];
+
+        return (int) Math.floorDiv(2 * weightedSum + weightsSum, 2 * weightsSum);
+    }
+}
@@ -23,77 +23,131 @@
 
 package de.poulter.openems.lib.mean;
 
-import java.util.stream.DoubleStream;
+import java.util.Arrays;
 
-import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
-import org.apache.commons.math3.stat.descriptive.moment.Mean;
+import de.poulter.openems.lib.filter.Filter;
 
-public class WeightedMean {
+// Weighted mean over a sliding window of weights.length values. The
+// first weight applies to the oldest value, the last weight to the
+// newest one. Values are kept in a primitive ring buffer, so no memory
+// is allocated after construction.
 
-    private DescriptiveStatistics ds;
-    private Mean mean;
-    private double[] weights;
-    private int size;
+public class WeightedMean implements Filter {
+
+    private final double[] weights;
+    private final double weightsSum;
+    private final double[] values;
+    private final int size;
+
+    private int head;
+    private boolean initialized;
+    private boolean dirty;
+    private double mean;
 
     public WeightedMean(double... weights) {
-        this.weights = weights;
+        if (weights == null || weights.length == 0) {
+            throw new IllegalArgumentException("At least one weight is required.");
+        }
+
+        double sum = 0d;
+        for (double weight : weights) {
+            if (!Double.isFinite(weight) || weight < 0d) {
+                throw new IllegalArgumentException("Invalid weight " + weight + ".");
+            }
+
+            sum += weight;
+        }
+
+        if (sum <= 0d) {
+            throw new IllegalArgumentException("Sum of weights must be positive.");
+        }
+
+        this.weights = weights.clone();
+        this.weightsSum = sum;
         this.size = weights.length;
-        this.mean = new Mean();
+        this.values = new double[size];
     }
 
+    @Override
     public void clear() {
-        ds = null;
+        initialized = false;
+        dirty = false;
+        mean = 0d;
+        head = 0;
     }
 
-    public void addValue(double value, int countLower, int countHigher) {
-        double currentMean = getMean();
-
-        if ((currentMean * 1.1) < value) {
-            addValue(value, countHigher);
+    // Adding a value count times overwrites the oldest min(count, size)
+    // values, so this is bounded by the window size and not by count.
+    @Override
+    public void addValue(double value, int count) {
+        if (count <= 0) return;
+
+        if (!initialized || count >= size) {
+            Arrays.fill(values, value);
+            head = 0;
+            initialized = true;
+            dirty = true;
+            return;
+        }
 
-        } else if ((currentMean * 0.9) > value) {
-            addValue(value, countLower);
+        int end = head + count;
+        if (end <= size) {
+            Arrays.fill(values, head, end, value);
 
         } else {
-            addValue(value);
+            Arrays.fill(values, head, size, value);
+            Arrays.fill(values, 0, end - size, value);
         }
-    }
 
-    public void addValue(double value, int count) {
-        for (int i = 0; i < count ; i++) {
-            addValue(value);
-        }
+        head = (end >= size) ? end - size : end;
+        dirty = true;
     }
 
+    @Override
     public void addValue(double value) {
-        if (ds == null) {
-            double[] initial = DoubleStream.generate(() -> value).limit(size).toArray();
-            ds = new DescriptiveStatistics(initial);
-            ds.setWindowSize(size);
-            ds.setMeanImpl(mean);
+        if (!initialized) {
+            Arrays.fill(values, value);
+            head = 0;
+            initialized = true;
         }
 
-        ds.addValue(value);
+        // head always points to the oldest value
+        values[head] = value;
+        head = (head + 1 == size) ? 0 : head + 1;
+        dirty = true;
     }
 
-    public double nextValue(double value, int countLower, int countHigher) {
-        addValue(value, countLower, countHigher);
+    @Override
+    public double getValue() {
         return getMean();
     }
 
-    public double nextValue(double value, int count) {
-        addValue(value, count);
-        return getMean();
-    }
+    public double getMean() {
+        if (!initialized) return 0d;
 
-    public double nextValue(double value) {
-        addValue(value);
-        return getMean();
+        if (dirty) {
+            mean = calculateMean();
+            dirty = false;
+        }
+
+        return mean;
     }
 
-    public double getMean() {
-        if (ds == null) return 0d;
+    // Same arithmetic as commons-math Mean.evaluate(values, weights), including
+    // the correction term, so results are identical to the former implementation.
+    private double calculateMean() {
+        double weightedSum = 0d;
+        int w = 0;
+        for (int i = head; i < size; i++) weightedSum += values[i] * weights[w++];
+        for (int i = 0; i < head; i++) weightedSum += values[i] * weights[w++];
+
+        double xbarw = weightedSum / weightsSum;
+
+        double correction = 0d;
+        w = 0;
+        for (int i = head; i < size; i++) correction += weights[w++] * (values[i] - xbarw);
+        for (int i = 0; i < head; i++) correction += weights[w++] * (values[i] - xbarw);
 
-        return mean.evaluate(ds.getValues(), weights);
+        return xbarw + (correction / weightsSum);
     }
 }
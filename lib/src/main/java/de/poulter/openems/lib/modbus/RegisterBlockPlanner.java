@@ -0,0 +1,112 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.modbus;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+// Plans read requests for a set of register ranges. Neighbouring ranges
+// are read in one request if the registers in between are cheaper than
+// another round trip, the round trip cost is given in registers. The
+// plan minimizes round trips plus read registers, with no request longer
+// than maxRegisters. Ranges must not overlap.
+//
+// Ranges are sorted by start address and split optimally by dynamic
+// programming, which is O(n * maxRegisters) at most.
+
+public class RegisterBlockPlanner {
+
+    public static final int MODBUS_MAX_REGISTERS = 125;
+
+    private final int maxRegisters;
+    private final int roundTripCost;
+
+    public RegisterBlockPlanner(int maxRegisters, int roundTripCost) {
+        if (maxRegisters < 1 || maxRegisters > MODBUS_MAX_REGISTERS) {
+            throw new IllegalArgumentException("Max registers " + maxRegisters + " must be within [1, " + MODBUS_MAX_REGISTERS + "].");
+        }
+
+        if (roundTripCost < 0) {
+            throw new IllegalArgumentException("Round trip cost " + roundTripCost + " must not be negative.");
+        }
+
+        this.maxRegisters = maxRegisters;
+        this.roundTripCost = roundTripCost;
+    }
+
+    // Returns the ranges grouped by request, ordered by start address.
+    public <T> List<List<T>> plan(List<T> ranges, ToIntFunction<T> startAddress, ToIntFunction<T> length) {
+        List<T> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingInt(startAddress));
+
+        int count = sorted.size();
+        int[] starts = new int[count];
+        int[] ends = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            starts[i] = startAddress.applyAsInt(sorted.get(i));
+            int rangeLength = length.applyAsInt(sorted.get(i));
+
+            if (rangeLength < 1 || rangeLength > maxRegisters) {
+                throw new IllegalArgumentException("Length " + rangeLength + " at " + starts[i] + " must be within [1, " + maxRegisters + "].");
+            }
+
+            ends[i] = starts[i] + rangeLength;
+
+            if (i > 0 && starts[i] < ends[i - 1]) {
+                throw new IllegalArgumentException("Range at " + starts[i] + " overlaps the previous one.");
+            }
+        }
+
+        // cost[j] is the cheapest plan for the first j ranges, whose last
+        // request starts at range first[j]
+        long[] cost = new long[count + 1];
+        int[] first = new int[count + 1];
+
+        for (int j = 1; j <= count; j++) {
+            cost[j] = Long.MAX_VALUE;
+
+            for (int i = j; i >= 1; i--) {
+                int span = ends[j - 1] - starts[i - 1];
+                if (span > maxRegisters) break;
+
+                // on a tie the longer request wins, it saves a round trip
+                long candidate = cost[i - 1] + roundTripCost + span;
+                if (candidate <= cost[j]) {
+                    cost[j] = candidate;
+                    first[j] = i - 1;
+                }
+            }
+        }
+
+        List<List<T>> blocks = new ArrayList<>();
+        for (int j = count; j > 0; j = first[j]) {
+            blocks.add(0, List.copyOf(sorted.subList(first[j], j)));
+        }
+
+        return blocks;
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.statistics;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+// Min, max, mean and approximate percentiles of all values added within
+// the last horizon, independent of how often values are added. Timestamps
+// are in nanoseconds, e.g. from System.nanoTime(), and must not decrease.
+//
+// Everything is kept in primitive rings that are allocated once: values
+// and timestamps in insertion order, min and max as monotonic deques of
+// ring positions and percentiles as a histogram with fixed buckets
+// between histogramLow and histogramHigh. Each update is amortized O(1),
+// a percentile query is O(buckets).
+//
+// If more than capacity values are added within the horizon the oldest
+// ones are dropped early, so capacity should be at least the horizon
+// divided by the shortest cycle time.
+
+public class TimeWindowStatistics {
+
+    private final long horizon;
+    private final int capacity;
+
+    private final long[] timestamps;
+    private final double[] values;
+    private int head;
+    private int count;
+    private double sum;
+
+    private final int[] minDeque;
+    private int minHead;
+    private int minSize;
+
+    private final int[] maxDeque;
+    private int maxHead;
+    private int maxSize;
+
+    private final double histogramLow;
+    private final double bucketWidth;
+    private final int[] buckets;
+
+    public TimeWindowStatistics(Duration horizon, int capacity, double histogramLow, double histogramHigh, int bucketCount) {
+        if (horizon.isNegative() || horizon.isZero()) {
+            throw new IllegalArgumentException("Horizon " + horizon + " must be positive.");
+        }
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity " + capacity + " must be at least 1.");
+        }
+
+        if (!(histogramHigh > histogramLow) || bucketCount < 1) {
+            throw new IllegalArgumentException("Invalid histogram [" + histogramLow + ", " + histogramHigh + "] with " + bucketCount + " buckets.");
+        }
+
+        this.horizon = horizon.toNanos();
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity];
+        this.minDeque = new int[capacity];
+        this.maxDeque = new int[capacity];
+        this.histogramLow = histogramLow;
+        this.bucketWidth = (histogramHigh - histogramLow) / bucketCount;
+        this.buckets = new int[bucketCount];
+    }
+
+    public void clear() {
+        head = 0;
+        count = 0;
+        sum = 0d;
+        minHead = 0;
+        minSize = 0;
+        maxHead = 0;
+        maxSize = 0;
+        Arrays.fill(buckets, 0);
+    }
+
+    public void addValue(long timestamp, double value) {
+        if (count > 0) {
+            // never go back in time
+            timestamp = Math.max(timestamp, timestamps[index(count - 1)]);
+        }
+
+        evict(timestamp);
+
+        if (count == capacity) {
+            removeOldest();
+        }
+
+        int position = index(count);
+        timestamps[position] = timestamp;
+        values[position] = value;
+        count++;
+
+        sum += value;
+        buckets[bucket(value)]++;
+
+        // min deque holds increasing values, max deque decreasing values
+        while (minSize > 0 && values[minDeque[dequeIndex(minHead, minSize - 1)]] > value) {
+            minSize--;
+        }
+        minDeque[dequeIndex(minHead, minSize++)] = position;
+
+        while (maxSize > 0 && values[maxDeque[dequeIndex(maxHead, maxSize - 1)]] < value) {
+            maxSize--;
+        }
+        maxDeque[dequeIndex(maxHead, maxSize++)] = position;
+    }
+
+    // drops all values that are older than horizon at the given time
+    public void evict(long now) {
+        long oldest = now - horizon;
+
+        while (count > 0 && timestamps[head] <= oldest) {
+            removeOldest();
+        }
+    }
+
+    private void removeOldest() {
+        double value = values[head];
+
+        sum -= value;
+        buckets[bucket(value)]--;
+
+        if (minSize > 0 && minDeque[minHead] == head) {
+            minHead = (minHead + 1 == capacity) ? 0 : minHead + 1;
+            minSize--;
+        }
+
+        if (maxSize > 0 && maxDeque[maxHead] == head) {
+            maxHead = (maxHead + 1 == capacity) ? 0 : maxHead + 1;
+            maxSize--;
+        }
+
+        head = (head + 1 == capacity) ? 0 : head + 1;
+        count--;
+
+        // avoid accumulating rounding errors
+        if (count == 0) {
+            sum = 0d;
+        }
+    }
+
+    private int index(int offset) {
+        int index = head + offset;
+        return (index >= capacity) ? index - capacity : index;
+    }
+
+    private int dequeIndex(int dequeHead, int offset) {
+        int index = dequeHead + offset;
+        return (index >= capacity) ? index - capacity : index;
+    }
+
+    private int bucket(double value) {
+        int bucket = (int) Math.floor((value - histogramLow) / bucketWidth);
+        if (bucket < 0) return 0;
+        if (bucket >= buckets.length) return buckets.length - 1;
+
+        return bucket;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public double getMin() {
+        if (count == 0) return Double.NaN;
+
+        return values[minDeque[minHead]];
+    }
+
+    public double getMax() {
+        if (count == 0) return Double.NaN;
+
+        return values[maxDeque[maxHead]];
+    }
+
+    public double getMean() {
+        if (count == 0) return Double.NaN;
+
+        return sum / count;
+    }
+
+    // Approximate percentile (0 to 100), interpolated within the histogram
+    // bucket and limited to the exact min and max of the window.
+    public double getPercentile(double percentile) {
+        if (count == 0) return Double.NaN;
+
+        double rank = Math.max(0d, Math.min(100d, percentile)) / 100d * count;
+        int cumulated = 0;
+
+        for (int i = 0; i < buckets.length; i++) {
+            int bucketCount = buckets[i];
+            if (bucketCount > 0 && cumulated + bucketCount >= rank) {
+                double fraction = (rank - cumulated) / bucketCount;
+                double value = histogramLow + (i + fraction) * bucketWidth;
+
+                return Math.max(getMin(), Math.min(getMax(), value));
+            }
+
+            cumulated += bucketCount;
+        }
+
+        return getMax();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.trace;
+
+import java.util.Arrays;
+
+// Fixed size ring of structured cycle records, a timestamp and one value
+// per field. Records are kept in primitive arrays that are allocated
+// once, so recording a cycle allocates nothing and costs a few array
+// stores. Unset values are kept as NaN and written as null.
+//
+// The trace is meant to be recorded and dumped from the same thread, e.g.
+// the OpenEMS cycle, and is not thread safe.
+
+public class CycleTrace {
+
+    private final String[] fields;
+    private final int fieldCount;
+    private final int capacity;
+
+    private final long[] timestamps;
+    private final double[] values;
+    private int head;
+    private int count;
+    private int current = -1;
+
+    public CycleTrace(int capacity, String... fields) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity " + capacity + " must be at least 1.");
+        }
+
+        if (fields == null || fields.length == 0) {
+            throw new IllegalArgumentException("At least one field is required.");
+        }
+
+        this.fields = fields.clone();
+        this.fieldCount = fields.length;
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity * fieldCount];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public void clear() {
+        head = 0;
+        count = 0;
+        current = -1;
+    }
+
+    // Starts a new record, overwriting the oldest one if the trace is full.
+    public void begin(long timestamp) {
+        current = head;
+        head = (head + 1 == capacity) ? 0 : head + 1;
+        if (count < capacity) count++;
+
+        timestamps[current] = timestamp;
+        int offset = current * fieldCount;
+        Arrays.fill(values, offset, offset + fieldCount, Double.NaN);
+    }
+
+    public void set(int field, double value) {
+        if (current < 0) return;
+        values[current * fieldCount + field] = value;
+    }
+
+    public void set(int field, boolean value) {
+        set(field, value ? 1d : 0d);
+    }
+
+    public void set(int field, Integer value) {
+        set(field, (value == null) ? Double.NaN : value.doubleValue());
+    }
+
+    public void set(int field, Float value) {
+        set(field, (value == null) ? Double.NaN : value.doubleValue());
+    }
+
+    // Oldest record first, e.g.
+    // [{"timestamp":1000,"limit":5000,"power":null},...]
+    public String toJson() {
+        StringBuilder json = new StringBuilder(32 + count * (24 + fieldCount * 16));
+        json.append('[');
+
+        int index = (count < capacity) ? 0 : head;
+        for (int i = 0; i < count; i++) {
+            if (i > 0) json.append(',');
+
+            json.append("{\"timestamp\":").append(timestamps[index]);
+
+            int offset = index * fieldCount;
+            for (int f = 0; f < fieldCount; f++) {
+                json.append(",\"").append(fields[f]).append("\":");
+                appendValue(json, values[offset + f]);
+            }
+
+            json.append('}');
+            index = (index + 1 == capacity) ? 0 : index + 1;
+        }
+
+        return json.append(']').toString();
+    }
+
+    private static void appendValue(StringBuilder json, double value) {
+        if (!Double.isFinite(value)) {
+            json.append("null");
+
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            json.append((long) value);
+
+        } else {
+            json.append(value);
+        }
+    }
+}
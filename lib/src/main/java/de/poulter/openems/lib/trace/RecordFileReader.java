@@ -0,0 +1,114 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.trace;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Reads a file written by RecordFileWriter. The whole file is mapped
+// read only, so records can be accessed randomly without copying.
+// Zero records at the end, left over by a crashed writer, are skipped.
+
+public class RecordFileReader implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int fieldCount;
+    private final int recordSize;
+    private final int size;
+
+    public RecordFileReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            long fileSize = channel.size();
+            if (fileSize < RecordFileWriter.HEADER_SIZE || fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Invalid size " + fileSize + " of record file " + path + ".");
+            }
+
+            this.buffer = channel.map(MapMode.READ_ONLY, 0, fileSize);
+
+            int magic = buffer.getInt(0);
+            int version = buffer.getInt(4);
+            if (magic != RecordFileWriter.MAGIC || version != RecordFileWriter.VERSION) {
+                throw new IOException("Unsupported record file " + path + ", magic " + magic + ", version " + version + ".");
+            }
+
+            this.fieldCount = buffer.getInt(8);
+            if (fieldCount < 1) {
+                throw new IOException("Invalid field count " + fieldCount + " in record file " + path + ".");
+            }
+
+            this.recordSize = RecordFileWriter.recordSize(fieldCount);
+
+            int records = (int) ((fileSize - RecordFileWriter.HEADER_SIZE) / recordSize);
+            while (records > 0 && buffer.getLong(RecordFileWriter.HEADER_SIZE + (records - 1) * recordSize) == 0L) {
+                records--;
+            }
+            this.size = records;
+
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTimestamp(int record) {
+        return buffer.getLong(offset(record));
+    }
+
+    public int getInt(int record, int field) {
+        if (field < 0 || field >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + field + " out of " + fieldCount + ".");
+        }
+
+        return buffer.getInt(offset(record) + Long.BYTES + field * Integer.BYTES);
+    }
+
+    public Integer getValue(int record, int field) {
+        int value = getInt(record, field);
+        return (value == RecordFileWriter.NULL) ? null : value;
+    }
+
+    private int offset(int record) {
+        return RecordFileWriter.HEADER_SIZE + record * recordSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.trace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Writes fixed width records, a long timestamp and fieldCount int values,
+// to a memory mapped file. The file is mapped in chunks of records, so
+// writing a record is a few stores into the mapping and allocates
+// nothing. Unset values are written as NULL.
+//
+// The file starts with a header of magic, version, field count and a
+// reserved int. On close it is truncated to the written records, after
+// a crash the rest of the last chunk is zero and skipped by the reader.
+
+public class RecordFileWriter implements AutoCloseable {
+
+    public static final int MAGIC = 0x52454346;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int NULL = Integer.MIN_VALUE;
+
+    private static final int DEFAULT_RECORDS_PER_CHUNK = 4096;
+
+    private final FileChannel channel;
+    private final int fieldCount;
+    private final int recordSize;
+    private final int chunkSize;
+
+    private MappedByteBuffer buffer;
+    private long bufferOffset = HEADER_SIZE;
+    private int current = -1;
+    private long count;
+
+    public RecordFileWriter(Path path, int fieldCount) throws IOException {
+        this(path, fieldCount, DEFAULT_RECORDS_PER_CHUNK);
+    }
+
+    public RecordFileWriter(Path path, int fieldCount, int recordsPerChunk) throws IOException {
+        if (fieldCount < 1) {
+            throw new IllegalArgumentException("Field count " + fieldCount + " must be at least 1.");
+        }
+
+        if (recordsPerChunk < 1) {
+            throw new IllegalArgumentException("Records per chunk " + recordsPerChunk + " must be at least 1.");
+        }
+
+        this.fieldCount = fieldCount;
+        this.recordSize = recordSize(fieldCount);
+        this.chunkSize = Math.multiplyExact(recordSize, recordsPerChunk);
+
+        this.channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(fieldCount).putInt(0).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    static int recordSize(int fieldCount) {
+        return Long.BYTES + fieldCount * Integer.BYTES;
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public long size() {
+        return count;
+    }
+
+    // Starts a new record with all values NULL.
+    public void begin(long timestamp) throws IOException {
+        if (buffer == null || !buffer.hasRemaining()) {
+            if (buffer != null) bufferOffset += chunkSize;
+            buffer = channel.map(MapMode.READ_WRITE, bufferOffset, chunkSize);
+        }
+
+        current = buffer.position();
+        buffer.putLong(timestamp);
+        for (int i = 0; i < fieldCount; i++) {
+            buffer.putInt(NULL);
+        }
+
+        count++;
+    }
+
+    public void set(int field, int value) {
+        if (current < 0) return;
+        buffer.putInt(current + Long.BYTES + field * Integer.BYTES, value);
+    }
+
+    public void set(int field, Integer value) {
+        set(field, (value == null) ? NULL : value.intValue());
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (buffer != null) buffer.force();
+            channel.truncate(HEADER_SIZE + count * recordSize);
+
+        } finally {
+            buffer = null;
+            current = -1;
+            channel.close();
+        }
+    }
+}
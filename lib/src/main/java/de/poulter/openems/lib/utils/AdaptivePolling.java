@@ -0,0 +1,74 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.utils;
+
+// Decides in which cycles a value that only changes on request is
+// polled. After trigger() it is polled in the next cycle, after that the
+// gap between two polls doubles with every poll up to maxInterval
+// cycles. A read value that differs from the previous one resets the
+// interval like trigger() does, a value changed by someone else is
+// followed closely as well. poll() and read() are called once per cycle,
+// trigger() may be called from another thread.
+
+public class AdaptivePolling {
+
+    private final int maxInterval;
+    private int interval = 1;
+    private int remaining = 0;
+    private double lastValue = Double.NaN;
+
+    public AdaptivePolling(int maxInterval) {
+        if (maxInterval < 1) {
+            throw new IllegalArgumentException("Max interval " + maxInterval + " must be at least 1.");
+        }
+
+        this.maxInterval = maxInterval;
+    }
+
+    public synchronized void trigger() {
+        interval = 1;
+        remaining = 0;
+    }
+
+    // NaN stands for no value
+    public synchronized void read(double value) {
+        if (Double.compare(value, lastValue) != 0) {
+            interval = 1;
+            remaining = 0;
+        }
+
+        lastValue = value;
+    }
+
+    public synchronized boolean poll() {
+        if (remaining > 0) {
+            remaining--;
+            return false;
+        }
+
+        remaining = interval - 1;
+        interval = Math.min(interval * 2, maxInterval);
+        return true;
+    }
+}
@@ -49,12 +49,10 @@ public abstract class DiffTimeApply<T extends Number> {
         boolean diffApply = currentValue.isEmpty() 
                             || (Math.abs(nextValue.doubleValue() - currentValue.get().doubleValue()) > compareDiff);
 
-        log.info("currentValue " + currentValue.toString() + ", nextValue " + nextValue);
-        log.info("timeout " + timeout + ", nextTimeoutAt " + nextTimeoutAt);
-        log.info("diffApply " + diffApply + ", timeApply " + timeApply + " " + (diffApply || timeApply ? " [ APPLY ]" : "[ NOPE  ]"));
-
         if (diffApply || timeApply) {
-            log.info("Setting to " + nextValue);
+            if (log.isDebugEnabled()) {
+                log.debug("Setting to {}, was {}, diffApply {}, timeApply {}", nextValue, currentValue, diffApply, timeApply);
+            }
 
             accept(nextValue);
 
@@ -0,0 +1,88 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+
+// Same as DiffTimeApply for float values, but without boxing. A value is
+// applied if it differs more than compareDiff from the last applied one or
+// if half of the timeout (in seconds) has passed since. The clock returns
+// nanoseconds and defaults to System.nanoTime(). Nothing is allocated if
+// the value is not applied.
+
+public abstract class FloatDiffTimeApply {
+
+    private static final Logger log = LoggerFactory.getLogger(FloatDiffTimeApply.class);
+
+    private final double compareDiff;
+    private final LongSupplier clock;
+
+    private boolean applied;
+    private float currentValue;
+    private long nextTimeoutAt;
+
+    public FloatDiffTimeApply(double compareDiff) {
+        this(compareDiff, System::nanoTime);
+    }
+
+    public FloatDiffTimeApply(double compareDiff, LongSupplier clock) {
+        this.compareDiff = compareDiff;
+        this.clock = clock;
+    }
+
+    public void reset() {
+        applied = false;
+    }
+
+    public boolean nextValue(long timeout, float nextValue) throws OpenemsNamedException {
+        long now = clock.getAsLong();
+        boolean timeApply = !applied || (now - nextTimeoutAt) > 0;
+        boolean diffApply = !applied || (Math.abs((double) nextValue - (double) currentValue) > compareDiff);
+
+        if (!(diffApply || timeApply)) {
+            return false;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Setting to {}, was {}, diffApply {}, timeApply {}", nextValue, currentValue, diffApply, timeApply);
+        }
+
+        accept(nextValue);
+
+        nextTimeoutAt = now + TimeUnit.SECONDS.toNanos(Math.ceilDiv(timeout, 2));
+        currentValue = nextValue;
+        applied = true;
+
+        return true;
+    }
+
+    public abstract void accept(float value) throws OpenemsNamedException;
+
+}
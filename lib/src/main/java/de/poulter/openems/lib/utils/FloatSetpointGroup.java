@@ -0,0 +1,143 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.utils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+
+// Group of related float setpoints that are written together, e.g. the
+// registers of one modbus write task. Values are staged with set() and
+// apply() decides once for the whole group:
+//
+// - deadband: the group is dirty if any setpoint differs more than its
+//   deadband from the last written value
+// - keepalive: all setpoints are rewritten after half of the timeout
+//   (in seconds), like DiffTimeApply does
+// - rate limit: a dirty group is not written again before minWriteInterval
+//   has passed, it stays dirty and is written as soon as allowed
+//
+// A write hands all staged values to accept() in a single call. Nothing is
+// allocated after construction, the clock returns nanoseconds.
+
+public abstract class FloatSetpointGroup {
+
+    private static final Logger log = LoggerFactory.getLogger(FloatSetpointGroup.class);
+
+    private final double[] deadbands;
+    private final long minWriteInterval;
+    private final LongSupplier clock;
+
+    private final float[] staged;
+    private final float[] written;
+
+    private boolean initialized;
+    private long lastWriteAt;
+    private long nextKeepaliveAt;
+
+    public FloatSetpointGroup(double... deadbands) {
+        this(Duration.ZERO, System::nanoTime, deadbands);
+    }
+
+    public FloatSetpointGroup(Duration minWriteInterval, double... deadbands) {
+        this(minWriteInterval, System::nanoTime, deadbands);
+    }
+
+    public FloatSetpointGroup(Duration minWriteInterval, LongSupplier clock, double... deadbands) {
+        if (deadbands.length == 0) {
+            throw new IllegalArgumentException("At least one setpoint is required.");
+        }
+
+        this.deadbands = deadbands.clone();
+        this.minWriteInterval = minWriteInterval.toNanos();
+        this.clock = clock;
+        this.staged = new float[deadbands.length];
+        this.written = new float[deadbands.length];
+    }
+
+    public int size() {
+        return staged.length;
+    }
+
+    public void set(int index, float value) {
+        staged[index] = value;
+    }
+
+    public float getWritten(int index) {
+        return written[index];
+    }
+
+    // forces a write of all setpoints on the next apply
+    public void reset() {
+        initialized = false;
+    }
+
+    public boolean isDirty() {
+        if (!initialized) return true;
+
+        for (int i = 0; i < staged.length; i++) {
+            if (Math.abs((double) staged[i] - (double) written[i]) > deadbands[i]) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public boolean apply(long timeout) throws OpenemsNamedException {
+        long now = clock.getAsLong();
+
+        boolean keepalive = initialized && (now - nextKeepaliveAt) > 0;
+        boolean dirty = keepalive || isDirty();
+        if (!dirty) {
+            return false;
+        }
+
+        if (initialized && !keepalive && (now - lastWriteAt) < minWriteInterval) {
+            return false;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Writing {} setpoints, keepalive {}", staged.length, keepalive);
+        }
+
+        accept(staged);
+
+        System.arraycopy(staged, 0, written, 0, staged.length);
+        lastWriteAt = now;
+        nextKeepaliveAt = now + TimeUnit.SECONDS.toNanos(Math.ceilDiv(timeout, 2));
+        initialized = true;
+
+        return true;
+    }
+
+    // values must not be kept, the array is reused
+    public abstract void accept(float[] values) throws OpenemsNamedException;
+
+}
@@ -0,0 +1,127 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.utils;
+
+// Confirms a written value by the following reads. The first read within
+// tolerance of the written value confirms the write, the time from write
+// to confirmation is kept as min, average and max. If maxReads reads do
+// not match, the write counts as mismatch and takeRetry() requests it
+// once again. Reads without a pending write are ignored.
+//
+// Times are nanoseconds, e.g. from System.nanoTime(), latencies are
+// returned in milliseconds. Reads may be reported from another thread,
+// e.g. the modbus bridge.
+
+public class WriteConfirmation {
+
+    private final double tolerance;
+    private final int maxReads;
+
+    private boolean pending;
+    private double writtenValue;
+    private long writtenAt;
+    private int reads;
+    private boolean retry;
+
+    private long confirmedCount;
+    private long mismatchCount;
+    private long latencySum;
+    private long minLatency = Long.MAX_VALUE;
+    private long maxLatency;
+
+    public WriteConfirmation(double tolerance, int maxReads) {
+        if (!(tolerance >= 0d)) {
+            throw new IllegalArgumentException("Tolerance " + tolerance + " must not be negative.");
+        }
+
+        if (maxReads < 1) {
+            throw new IllegalArgumentException("Max reads " + maxReads + " must be at least 1.");
+        }
+
+        this.tolerance = tolerance;
+        this.maxReads = maxReads;
+    }
+
+    public synchronized void written(double value, long now) {
+        pending = true;
+        writtenValue = value;
+        writtenAt = now;
+        reads = 0;
+        retry = false;
+    }
+
+    public synchronized void read(double value, long now) {
+        if (!pending || Double.isNaN(value)) return;
+
+        if (Math.abs(value - writtenValue) <= tolerance) {
+            long latency = now - writtenAt;
+            latencySum += latency;
+            minLatency = Math.min(minLatency, latency);
+            maxLatency = Math.max(maxLatency, latency);
+            confirmedCount++;
+            pending = false;
+            return;
+        }
+
+        if (++reads >= maxReads) {
+            mismatchCount++;
+            pending = false;
+            retry = true;
+        }
+    }
+
+    public synchronized boolean isPending() {
+        return pending;
+    }
+
+    public synchronized boolean takeRetry() {
+        boolean result = retry;
+        retry = false;
+        return result;
+    }
+
+    public synchronized long getConfirmedCount() {
+        return confirmedCount;
+    }
+
+    public synchronized long getMismatchCount() {
+        return mismatchCount;
+    }
+
+    public synchronized Integer getMinLatency() {
+        return (confirmedCount == 0) ? null : toMillis(minLatency);
+    }
+
+    public synchronized Integer getAvgLatency() {
+        return (confirmedCount == 0) ? null : toMillis(latencySum / confirmedCount);
+    }
+
+    public synchronized Integer getMaxLatency() {
+        return (confirmedCount == 0) ? null : toMillis(maxLatency);
+    }
+
+    private static int toMillis(long nanos) {
+        return (int) Math.min(Integer.MAX_VALUE, nanos / 1_000_000L);
+    }
+}
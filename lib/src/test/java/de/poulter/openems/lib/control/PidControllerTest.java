@@ -0,0 +1,94 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.control;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class PidControllerTest {
+
+    private static final double DELTA = 0.000001d;
+
+    @Test
+    public void proportionalOnlyTest() throws Exception {
+        PidController pid = new PidController(1d, 0d, 0d, 0d, 20000d);
+
+        // kp 1 without integral is feed forward plus error
+        assertEquals(13000d, pid.update(12000d, 1000d), DELTA);
+        assertEquals(20000d, pid.update(30000d, 1000d), DELTA);
+        assertEquals(0d, pid.update(-5000d, 1000d), DELTA);
+    }
+
+    @Test
+    public void convergenceTest() throws Exception {
+        // pv plant limited by the controller, allowed export 6000 W
+        PidController pid = new PidController(0.7d, 0.3d, 0d, 0d, 20000d);
+        double consumption = 1000d;
+        double available = 15000d;
+        double limit = 20000d;
+
+        for (int i = 0; i < 20; i++) {
+            double pv = Math.min(limit, available);
+            double grid = consumption - pv;
+            limit = pid.update(6000d + grid, pv);
+        }
+
+        assertEquals(7000d, limit, 1d);
+    }
+
+    @Test
+    public void antiWindupTest() throws Exception {
+        PidController pid = new PidController(0.5d, 0.5d, 0d, 0d, 20000d);
+
+        // long time saturated at the upper limit
+        for (int i = 0; i < 1000; i++) {
+            pid.update(50000d, 10000d);
+        }
+        assertTrue(pid.getIntegral() <= 20000d);
+
+        // the first negative error is applied without unwinding first
+        double output = pid.update(-8000d, 10000d);
+        assertTrue(output < 20000d);
+    }
+
+    @Test
+    public void derivativeTest() throws Exception {
+        PidController pid = new PidController(0d, 0d, 2d, -100d, 100d);
+
+        assertEquals(0d, pid.update(5d, 0d), DELTA);
+        assertEquals(10d, pid.update(10d, 0d), DELTA);
+
+        pid.reset();
+        assertEquals(0d, pid.update(10d, 0d), DELTA);
+    }
+
+    @Test
+    public void invalidTest() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> new PidController(-1d, 0d, 0d, 0d, 1d));
+        assertThrows(IllegalArgumentException.class, () -> new PidController(1d, 0d, 0d, 1d, 0d));
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.control;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class RampLimiterTest {
+
+    private static final double DELTA = 0.000001d;
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    public void firstValueTest() throws Exception {
+        RampLimiter rampLimiter = new RampLimiter(10d, 20d, false);
+        assertEquals(60d, rampLimiter.next(60d, 5 * SECOND), DELTA);
+    }
+
+    @Test
+    public void rampTest() throws Exception {
+        RampLimiter rampLimiter = new RampLimiter(10d, 20d, false);
+        rampLimiter.next(50d, 0L);
+
+        // up with 10 per second
+        assertEquals(55d, rampLimiter.next(100d, SECOND / 2), DELTA);
+        assertEquals(65d, rampLimiter.next(100d, 3 * SECOND / 2), DELTA);
+
+        // down with 20 per second, independent of the amount of calls
+        assertEquals(60d, rampLimiter.next(0d, 7 * SECOND / 4), DELTA);
+        assertEquals(55d, rampLimiter.next(0d, 2 * SECOND), DELTA);
+
+        // target is not overshot
+        assertEquals(40d, rampLimiter.next(40d, 10 * SECOND), DELTA);
+        assertEquals(40d, rampLimiter.next(40d, 11 * SECOND), DELTA);
+    }
+
+    @Test
+    public void immediateDecreaseTest() throws Exception {
+        RampLimiter rampLimiter = new RampLimiter(10d, 20d, true);
+        rampLimiter.next(100d, 0L);
+
+        assertEquals(30d, rampLimiter.next(30d, SECOND / 10), DELTA);
+        assertEquals(40d, rampLimiter.next(100d, 11 * SECOND / 10), DELTA);
+    }
+
+    @Test
+    public void clearTest() throws Exception {
+        RampLimiter rampLimiter = new RampLimiter(10d, 20d, false);
+        rampLimiter.next(100d, 0L);
+        rampLimiter.clear();
+
+        assertEquals(10d, rampLimiter.next(10d, SECOND), DELTA);
+    }
+
+    @Test
+    public void invalidTest() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> new RampLimiter(0d, 1d, false));
+        assertThrows(IllegalArgumentException.class, () -> new RampLimiter(1d, Double.NaN, false));
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class ExponentialMovingAverageTest {
+
+    private static final double DELTA = 0.000001d;
+
+    @Test
+    public void averageTest() throws Exception {
+        Filter filter = new ExponentialMovingAverage(0.5d);
+        assertEquals(0d, filter.getValue(), DELTA);
+
+        assertEquals(100d, filter.nextValue(100d), DELTA);
+        assertEquals(50d, filter.nextValue(0d), DELTA);
+        assertEquals(25d, filter.nextValue(0d), DELTA);
+    }
+
+    @Test
+    public void countTest() throws Exception {
+        Filter once = new ExponentialMovingAverage(0.3d);
+        Filter loop = new ExponentialMovingAverage(0.3d);
+        once.addValue(1000d);
+        loop.addValue(1000d);
+
+        once.addValue(200d, 4);
+        for (int i = 0; i < 4; i++) {
+            loop.addValue(200d);
+        }
+
+        assertEquals(loop.getValue(), once.getValue(), DELTA);
+    }
+
+    @Test
+    public void clearTest() throws Exception {
+        Filter filter = new ExponentialMovingAverage(0.5d);
+        filter.addValue(100d);
+        filter.clear();
+
+        assertEquals(0d, filter.getValue(), DELTA);
+        assertEquals(20d, filter.nextValue(20d), DELTA);
+    }
+
+    @Test
+    public void invalidAlphaTest() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> new ExponentialMovingAverage(0d));
+        assertThrows(IllegalArgumentException.class, () -> new ExponentialMovingAverage(1.5d));
+    }
+}
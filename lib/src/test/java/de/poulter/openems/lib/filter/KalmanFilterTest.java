@@ -0,0 +1,70 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class KalmanFilterTest {
+
+    private static final double DELTA = 0.000001d;
+
+    @Test
+    public void convergeTest() throws Exception {
+        Filter filter = new KalmanFilter(1d, 100d);
+        assertEquals(0d, filter.getValue(), DELTA);
+        assertEquals(1000d, filter.nextValue(1000d), DELTA);
+
+        double last = filter.getValue();
+        for (int i = 0; i < 50; i++) {
+            double value = filter.nextValue(2000d);
+            assertTrue(value > last && value < 2000d);
+            last = value;
+        }
+
+        assertEquals(2000d, last, 100d);
+    }
+
+    @Test
+    public void countTest() throws Exception {
+        Filter once = new KalmanFilter(1d, 100d);
+        Filter twice = new KalmanFilter(1d, 100d);
+        once.addValue(0d);
+        twice.addValue(0d);
+
+        once.addValue(100d);
+        twice.addValue(100d, 2);
+
+        assertTrue(twice.getValue() > once.getValue());
+    }
+
+    @Test
+    public void invalidNoiseTest() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> new KalmanFilter(-1d, 1d));
+        assertThrows(IllegalArgumentException.class, () -> new KalmanFilter(1d, 0d));
+    }
+}
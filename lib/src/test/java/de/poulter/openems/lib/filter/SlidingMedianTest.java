@@ -0,0 +1,88 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class SlidingMedianTest {
+
+    private static final double DELTA = 0.000001d;
+
+    @Test
+    public void outlierTest() throws Exception {
+        Filter filter = new SlidingMedian(3);
+        assertEquals(0d, filter.getValue(), DELTA);
+
+        assertEquals(100d, filter.nextValue(100d), DELTA);
+        // window 100, 100, 5000
+        assertEquals(100d, filter.nextValue(5000d), DELTA);
+
+        // window 100, 5000, 105
+        assertEquals(105d, filter.nextValue(105d), DELTA);
+
+        // window 5000, 105, 110
+        assertEquals(110d, filter.nextValue(110d), DELTA);
+    }
+
+    @Test
+    public void evenWindowTest() throws Exception {
+        Filter filter = new SlidingMedian(4);
+        filter.addValue(10d);
+        filter.addValue(20d, 2);
+
+        // window 10, 10, 20, 20
+        assertEquals(15d, filter.getValue(), DELTA);
+
+        // count larger than window
+        assertEquals(30d, filter.nextValue(30d, 10), DELTA);
+    }
+
+    @Test
+    public void randomTest() throws Exception {
+        int size = 7;
+        Random random = new Random(4711);
+        double[] window = new double[size];
+        Filter filter = new SlidingMedian(size);
+
+        double first = random.nextInt(100);
+        Arrays.fill(window, first);
+        filter.addValue(first);
+
+        for (int i = 0; i < 1000; i++) {
+            double value = random.nextInt(100);
+            System.arraycopy(window, 1, window, 0, size - 1);
+            window[size - 1] = value;
+
+            double[] sorted = window.clone();
+            Arrays.sort(sorted);
+
+            assertEquals(sorted[size / 2], filter.nextValue(value), DELTA);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.mean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentWeightedMeanTest {
+
+    private static final double DELTA = 0.000001d;
+
+    @Test
+    public void sameAsWeightedMeanTest() throws Exception {
+        WeightedMean weightedMean = new WeightedMean(1d, 1d, 2d);
+        ConcurrentWeightedMean concurrentWeightedMean = new ConcurrentWeightedMean(1d, 1d, 2d);
+
+        double[] values = { 0d, 8d, 4d, 4d, 100d, 7d };
+        for (double value : values) {
+            assertEquals(weightedMean.nextValue(value, 2, 1), concurrentWeightedMean.nextValue(value, 2, 1), DELTA);
+        }
+
+        concurrentWeightedMean.clear();
+        assertEquals(0d, concurrentWeightedMean.getMean(), DELTA);
+    }
+
+    @Test
+    public void concurrentReaderTest() throws Exception {
+        ConcurrentWeightedMean weightedMean = new ConcurrentWeightedMean(15d, 15d, 20d, 30d, 40d, 50d, 75d);
+        int values = 200000;
+
+        // the writer adds increasing values, so every published mean has
+        // to be increasing as well
+        AtomicBoolean failed = new AtomicBoolean();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread reader = new Thread(() -> {
+            double last = 0d;
+            while (!done.get()) {
+                double mean = weightedMean.getMean();
+                if (mean < last || mean > values) {
+                    failed.set(true);
+                }
+
+                last = mean;
+            }
+        });
+        reader.start();
+
+        for (int i = 1; i <= values; i++) {
+            weightedMean.addValue(i);
+        }
+
+        done.set(true);
+        reader.join();
+
+        assertFalse(failed.get());
+        // oldest values are 6, 5, ... 0 below the newest one
+        assertEquals(values - 465d / 245d, weightedMean.getMean(), DELTA);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.mean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class IntWeightedMeanTest {
+
+    private static final int[] WEIGHTS = { 15, 15, 15, 15, 20, 30, 40, 50, 60, 75 };
+
+    @Test
+    public void emptyTest() throws Exception {
+        IntWeightedMean weightedMean = new IntWeightedMean(1, 2, 3);
+        assertEquals(0, weightedMean.getMean());
+    }
+
+    @Test
+    public void roundingTest() throws Exception {
+        IntWeightedMean weightedMean = new IntWeightedMean(1, 1);
+        weightedMean.addValue(0);
+
+        // 0.5 rounds up
+        assertEquals(1, weightedMean.nextValue(1));
+
+        // -0.5 rounds up as well
+        weightedMean.clear();
+        weightedMean.addValue(0);
+        assertEquals(0, weightedMean.nextValue(-1));
+
+        // -1.5 rounds up
+        assertEquals(-1, weightedMean.nextValue(-2));
+    }
+
+    @Test
+    public void controllerRampTest() throws Exception {
+        IntWeightedMean weightedMean = new IntWeightedMean(WEIGHTS);
+
+        assertEquals(13000, weightedMean.nextValue(13000));
+        assertEquals(14455, weightedMean.nextValue(19500));
+
+        for (int i = 0; i < 30; i++) {
+            weightedMean.addValue(19500);
+        }
+        assertEquals(19500, weightedMean.getMean());
+    }
+
+    @Test
+    public void lowerHigherTest() throws Exception {
+        IntWeightedMean weightedMean = new IntWeightedMean(1, 1, 1, 1);
+        weightedMean.addValue(100);
+
+        // lower, window 100, 100, 0, 0
+        assertEquals(50, weightedMean.nextValue(0, 2, 1));
+
+        // higher, window 100, 0, 0, 200
+        assertEquals(75, weightedMean.nextValue(200, 2, 1));
+
+        // within 10%, window 0, 0, 200, 80
+        assertEquals(70, weightedMean.nextValue(80, 2, 1));
+    }
+
+    @Test
+    public void matchesWeightedMeanTest() throws Exception {
+        double[] doubleWeights = new double[WEIGHTS.length];
+        for (int i = 0; i < WEIGHTS.length; i++) {
+            doubleWeights[i] = WEIGHTS[i];
+        }
+
+        IntWeightedMean intWeightedMean = new IntWeightedMean(WEIGHTS);
+        WeightedMean weightedMean = new WeightedMean(doubleWeights);
+        Random random = new Random(4711);
+
+        for (int i = 0; i < 10000; i++) {
+            int value = random.nextInt(20000);
+            int count = 1 + random.nextInt(12);
+
+            int expected = (int) Math.floor(weightedMean.nextValue(value, count) + 0.5d);
+            assertEquals(expected, intWeightedMean.nextValue(value, count), 1);
+        }
+    }
+
+    @Test
+    public void invalidWeightsTest() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> new IntWeightedMean());
+        assertThrows(IllegalArgumentException.class, () -> new IntWeightedMean(1, -1));
+        assertThrows(IllegalArgumentException.class, () -> new IntWeightedMean(0, 0));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.mean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class WeightedMeanTest {
+
+    private static final double DELTA = 0.000001d;
+
+    @Test
+    public void emptyTest() throws Exception {
+        WeightedMean weightedMean = new WeightedMean(1d, 2d, 3d);
+        assertEquals(0d, weightedMean.getMean(), DELTA);
+    }
+
+    @Test
+    public void firstValueFillsWindowTest() throws Exception {
+        WeightedMean weightedMean = new WeightedMean(15d, 15d, 20d, 50d);
+        assertEquals(1000d, weightedMean.nextValue(1000d), DELTA);
+    }
+
+    @Test
+    public void weightsTest() throws Exception {
+        WeightedMean weightedMean = new WeightedMean(1d, 1d, 2d);
+        weightedMean.addValue(0d);
+
+        // window 0, 0, 8
+        assertEquals(4d, weightedMean.nextValue(8d), DELTA);
+
+        // window 0, 8, 4
+        assertEquals(4d, weightedMean.nextValue(4d), DELTA);
+
+        // window 8, 4, 4
+        assertEquals(5d, weightedMean.nextValue(4d), DELTA);
+    }
+
+    @Test
+    public void countTest() throws Exception {
+        WeightedMean weightedMean = new WeightedMean(1d, 1d, 2d);
+        weightedMean.addValue(0d);
+
+        // window 0, 8, 8
+        assertEquals(6d, weightedMean.nextValue(8d, 2), DELTA);
+
+        // wraps around, window 8, 4, 4
+        assertEquals(5d, weightedMean.nextValue(4d, 2), DELTA);
+
+        // count larger than window, window 2, 2, 2
+        assertEquals(2d, weightedMean.nextValue(2d, 1000000), DELTA);
+
+        // nothing added
+        assertEquals(2d, weightedMean.nextValue(9d, 0), DELTA);
+    }
+
+    @Test
+    public void lowerHigherTest() throws Exception {
+        WeightedMean weightedMean = new WeightedMean(1d, 1d, 1d, 1d);
+        weightedMean.addValue(100d);
+
+        // lower, window 100, 100, 0, 0
+        assertEquals(50d, weightedMean.nextValue(0d, 2, 1), DELTA);
+
+        // higher, window 100, 0, 0, 200
+        assertEquals(75d, weightedMean.nextValue(200d, 2, 1), DELTA);
+
+        // within 10%, window 0, 0, 200, 80
+        assertEquals(70d, weightedMean.nextValue(80d, 2, 1), DELTA);
+    }
+
+    @Test
+    public void clearTest() throws Exception {
+        WeightedMean weightedMean = new WeightedMean(1d, 1d);
+        weightedMean.addValue(10d);
+        weightedMean.clear();
+        assertEquals(0d, weightedMean.getMean(), DELTA);
+
+        assertEquals(20d, weightedMean.nextValue(20d), DELTA);
+    }
+
+    @Test
+    public void invalidWeightsTest() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> new WeightedMean());
+        assertThrows(IllegalArgumentException.class, () -> new WeightedMean(1d, -1d));
+        assertThrows(IllegalArgumentException.class, () -> new WeightedMean(0d, 0d));
+    }
+}
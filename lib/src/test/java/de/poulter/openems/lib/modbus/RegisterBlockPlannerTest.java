@@ -0,0 +1,138 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.modbus;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class RegisterBlockPlannerTest {
+
+    // start address and length
+    private static List<List<int[]>> plan(RegisterBlockPlanner planner, int[]... ranges) {
+        return planner.plan(List.of(ranges), range -> range[0], range -> range[1]);
+    }
+
+    private static int[] starts(List<int[]> block) {
+        return block.stream().mapToInt(range -> range[0]).toArray();
+    }
+
+    @Test
+    public void emptyTest() throws Exception {
+        assertEquals(0, plan(new RegisterBlockPlanner(125, 64)).size());
+    }
+
+    @Test
+    public void se9kDefaultTest() throws Exception {
+
+        // default of the SE9K, only the reserved registers within the EPC
+        // block are read, like the fixed layout did
+        RegisterBlockPlanner planner = new RegisterBlockPlanner(125, 3);
+
+        // vendor register elements of the SE9K
+        List<List<int[]>> blocks = plan(planner,
+            new int[] { 0xF000, 1 }, new int[] { 0xF001, 1 }, new int[] { 0xF002, 2 },
+            new int[] { 0xF102, 2 }, new int[] { 0xF104, 2 }, new int[] { 0xF106, 2 },
+            new int[] { 0xF142, 2 }, new int[] { 0xF144, 2 },
+            new int[] { 0xF300, 1 }, new int[] { 0xF304, 2 }, new int[] { 0xF306, 2 }, new int[] { 0xF308, 1 },
+            new int[] { 0xF309, 1 }, new int[] { 0xF30C, 2 }, new int[] { 0xF30E, 2 }, new int[] { 0xF310, 2 }
+        );
+
+        assertEquals(4, blocks.size());
+        assertArrayEquals(new int[] { 0xF000, 0xF001, 0xF002 }, starts(blocks.get(0)));
+        assertArrayEquals(new int[] { 0xF102, 0xF104, 0xF106 }, starts(blocks.get(1)));
+        assertArrayEquals(new int[] { 0xF142, 0xF144 }, starts(blocks.get(2)));
+        assertArrayEquals(new int[] { 0xF300, 0xF304, 0xF306, 0xF308, 0xF309, 0xF30C, 0xF30E, 0xF310 }, starts(blocks.get(3)));
+    }
+
+    @Test
+    public void se9kTest() throws Exception {
+        RegisterBlockPlanner planner = new RegisterBlockPlanner(125, 64);
+
+        // vendor registers of the SE9K, unordered, merged across the gap
+        // after 0xF108 only with the higher round trip cost
+        List<List<int[]>> blocks = plan(planner,
+            new int[] { 0xF300, 18 },
+            new int[] { 0xF000, 4 },
+            new int[] { 0xF102, 6 },
+            new int[] { 0xF142, 4 }
+        );
+
+        assertEquals(3, blocks.size());
+        assertEquals(0xF000, starts(blocks.get(0))[0]);
+        assertEquals(2, blocks.get(1).size());
+        assertEquals(0xF102, starts(blocks.get(1))[0]);
+        assertEquals(0xF142, starts(blocks.get(1))[1]);
+        assertEquals(0xF300, starts(blocks.get(2))[0]);
+    }
+
+    @Test
+    public void roundTripCostTest() throws Exception {
+        int[] a = { 0, 10 };
+        int[] b = { 20, 10 };
+
+        // gap of 10 registers is cheaper than a round trip
+        assertEquals(1, plan(new RegisterBlockPlanner(125, 11), a, b).size());
+
+        // on a tie the ranges are merged
+        assertEquals(1, plan(new RegisterBlockPlanner(125, 10), a, b).size());
+
+        // round trip is cheaper than the gap
+        assertEquals(2, plan(new RegisterBlockPlanner(125, 9), a, b).size());
+
+        // adjacent ranges are always merged
+        assertEquals(1, plan(new RegisterBlockPlanner(125, 0), new int[] { 0, 10 }, new int[] { 10, 10 }).size());
+    }
+
+    @Test
+    public void maxRegistersTest() throws Exception {
+        RegisterBlockPlanner planner = new RegisterBlockPlanner(30, 100);
+
+        // all together would be 40 registers, the best split saves the larger gap
+        List<List<int[]>> blocks = plan(planner,
+            new int[] { 0, 10 },
+            new int[] { 12, 10 },
+            new int[] { 30, 10 }
+        );
+
+        assertEquals(2, blocks.size());
+        assertEquals(2, blocks.get(0).size());
+        assertEquals(30, starts(blocks.get(1))[0]);
+    }
+
+    @Test
+    public void invalidTest() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> new RegisterBlockPlanner(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new RegisterBlockPlanner(126, 10));
+        assertThrows(IllegalArgumentException.class, () -> new RegisterBlockPlanner(125, -1));
+
+        RegisterBlockPlanner planner = new RegisterBlockPlanner(20, 10);
+        assertThrows(IllegalArgumentException.class, () -> plan(planner, new int[] { 0, 21 }));
+        assertThrows(IllegalArgumentException.class, () -> plan(planner, new int[] { 0, 10 }, new int[] { 5, 10 }));
+    }
+}
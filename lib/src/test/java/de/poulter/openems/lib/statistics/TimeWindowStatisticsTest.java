@@ -0,0 +1,133 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TimeWindowStatisticsTest {
+
+    private static final double DELTA = 0.000001d;
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    public void emptyTest() throws Exception {
+        TimeWindowStatistics statistics = new TimeWindowStatistics(Duration.ofSeconds(10), 16, 0d, 100d, 10);
+
+        assertTrue(statistics.isEmpty());
+        assertTrue(Double.isNaN(statistics.getMin()));
+        assertTrue(Double.isNaN(statistics.getMax()));
+        assertTrue(Double.isNaN(statistics.getMean()));
+        assertTrue(Double.isNaN(statistics.getPercentile(50d)));
+    }
+
+    @Test
+    public void horizonTest() throws Exception {
+        TimeWindowStatistics statistics = new TimeWindowStatistics(Duration.ofSeconds(10), 16, 0d, 100d, 10);
+
+        statistics.addValue(0 * SECOND, 50d);
+        statistics.addValue(4 * SECOND, 10d);
+        statistics.addValue(8 * SECOND, 30d);
+
+        assertEquals(3, statistics.getCount());
+        assertEquals(10d, statistics.getMin(), DELTA);
+        assertEquals(50d, statistics.getMax(), DELTA);
+        assertEquals(30d, statistics.getMean(), DELTA);
+
+        // 50 drops out
+        statistics.addValue(12 * SECOND, 20d);
+        assertEquals(3, statistics.getCount());
+        assertEquals(10d, statistics.getMin(), DELTA);
+        assertEquals(30d, statistics.getMax(), DELTA);
+        assertEquals(20d, statistics.getMean(), DELTA);
+
+        // only 20 is left
+        statistics.evict(21 * SECOND);
+        assertEquals(1, statistics.getCount());
+        assertEquals(20d, statistics.getMin(), DELTA);
+        assertEquals(20d, statistics.getMax(), DELTA);
+
+        statistics.evict(22 * SECOND);
+        assertTrue(statistics.isEmpty());
+    }
+
+    @Test
+    public void capacityTest() throws Exception {
+        TimeWindowStatistics statistics = new TimeWindowStatistics(Duration.ofSeconds(10), 2, 0d, 100d, 10);
+
+        statistics.addValue(0, 1d);
+        statistics.addValue(1, 2d);
+        statistics.addValue(2, 3d);
+
+        assertEquals(2, statistics.getCount());
+        assertEquals(2d, statistics.getMin(), DELTA);
+        assertEquals(3d, statistics.getMax(), DELTA);
+    }
+
+    @Test
+    public void percentileTest() throws Exception {
+        TimeWindowStatistics statistics = new TimeWindowStatistics(Duration.ofSeconds(1000), 128, 0d, 100d, 100);
+
+        for (int i = 1; i <= 100; i++) {
+            statistics.addValue(i * SECOND, i);
+        }
+
+        assertEquals(50d, statistics.getPercentile(50d), 1d);
+        assertEquals(95d, statistics.getPercentile(95d), 1d);
+        assertEquals(1d, statistics.getPercentile(0d), DELTA);
+        assertEquals(100d, statistics.getPercentile(100d), DELTA);
+    }
+
+    @Test
+    public void randomTest() throws Exception {
+        TimeWindowStatistics statistics = new TimeWindowStatistics(Duration.ofSeconds(5), 64, 0d, 1000d, 50);
+        ArrayDeque<long[]> window = new ArrayDeque<>();
+        Random random = new Random(4711);
+        long now = 0;
+
+        for (int i = 0; i < 5000; i++) {
+            now += random.nextInt(1000) * 1_000_000L;
+            long value = random.nextInt(1000);
+
+            statistics.addValue(now, value);
+            window.addLast(new long[] { now, value });
+            while (window.peekFirst()[0] <= now - 5 * SECOND) {
+                window.removeFirst();
+            }
+
+            double[] expected = window.stream().mapToDouble(entry -> entry[1]).toArray();
+            assertEquals(expected.length, statistics.getCount());
+            assertEquals(Arrays.stream(expected).min().getAsDouble(), statistics.getMin(), DELTA);
+            assertEquals(Arrays.stream(expected).max().getAsDouble(), statistics.getMax(), DELTA);
+            assertEquals(Arrays.stream(expected).average().getAsDouble(), statistics.getMean(), 0.0001d);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.trace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class CycleTraceTest {
+
+    @Test
+    public void emptyTest() throws Exception {
+        CycleTrace cycleTrace = new CycleTrace(2, "limit");
+        assertEquals(0, cycleTrace.size());
+        assertEquals("[]", cycleTrace.toJson());
+
+        // nothing recorded before the first record is started
+        cycleTrace.set(0, 100d);
+        assertEquals("[]", cycleTrace.toJson());
+    }
+
+    @Test
+    public void recordTest() throws Exception {
+        CycleTrace cycleTrace = new CycleTrace(3, "limit", "power", "active");
+
+        cycleTrace.begin(1000L);
+        cycleTrace.set(0, 5000);
+        cycleTrace.set(1, 12.5f);
+        cycleTrace.set(2, true);
+
+        cycleTrace.begin(2000L);
+        cycleTrace.set(0, (Integer) null);
+
+        assertEquals(2, cycleTrace.size());
+        assertEquals(
+            "[{\"timestamp\":1000,\"limit\":5000,\"power\":12.5,\"active\":1},"
+            + "{\"timestamp\":2000,\"limit\":null,\"power\":null,\"active\":null}]",
+            cycleTrace.toJson()
+        );
+    }
+
+    @Test
+    public void wrapAroundTest() throws Exception {
+        CycleTrace cycleTrace = new CycleTrace(2, "value");
+
+        for (int i = 1; i <= 5; i++) {
+            cycleTrace.begin(i);
+            cycleTrace.set(0, i * 10d);
+        }
+
+        // oldest records are overwritten
+        assertEquals(2, cycleTrace.size());
+        assertEquals("[{\"timestamp\":4,\"value\":40},{\"timestamp\":5,\"value\":50}]", cycleTrace.toJson());
+    }
+
+    @Test
+    public void clearTest() throws Exception {
+        CycleTrace cycleTrace = new CycleTrace(2, "value");
+        cycleTrace.begin(1L);
+        cycleTrace.set(0, 1d);
+        cycleTrace.clear();
+
+        assertEquals(0, cycleTrace.size());
+        assertEquals("[]", cycleTrace.toJson());
+    }
+
+    @Test
+    public void invalidTest() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> new CycleTrace(0, "value"));
+        assertThrows(IllegalArgumentException.class, () -> new CycleTrace(1));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.trace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class RecordFileTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    public void roundTripTest() throws Exception {
+        Path file = tempDir.resolve("records.bin");
+
+        // 2 records per chunk, so the writer has to map several chunks
+        try (RecordFileWriter writer = new RecordFileWriter(file, 3, 2)) {
+            for (int i = 1; i <= 5; i++) {
+                writer.begin(i * 1000L);
+                writer.set(0, i);
+                writer.set(1, -i * 100);
+                writer.set(2, (i % 2 == 0) ? null : Integer.valueOf(i));
+            }
+
+            assertEquals(5L, writer.size());
+        }
+
+        assertEquals(RecordFileWriter.HEADER_SIZE + 5 * RecordFileWriter.recordSize(3), Files.size(file));
+
+        try (RecordFileReader reader = new RecordFileReader(file)) {
+            assertEquals(3, reader.getFieldCount());
+            assertEquals(5, reader.size());
+
+            for (int i = 0; i < 5; i++) {
+                assertEquals((i + 1) * 1000L, reader.getTimestamp(i));
+                assertEquals(i + 1, reader.getInt(i, 0));
+                assertEquals(-(i + 1) * 100, reader.getValue(i, 1));
+            }
+
+            assertEquals(1, reader.getValue(0, 2));
+            assertNull(reader.getValue(1, 2));
+        }
+    }
+
+    @Test
+    public void unsetValuesTest() throws Exception {
+        Path file = tempDir.resolve("records.bin");
+
+        try (RecordFileWriter writer = new RecordFileWriter(file, 2)) {
+            // nothing recorded before the first record is started
+            writer.set(0, 5);
+
+            writer.begin(1L);
+            writer.set(1, 7);
+        }
+
+        try (RecordFileReader reader = new RecordFileReader(file)) {
+            assertEquals(1, reader.size());
+            assertNull(reader.getValue(0, 0));
+            assertEquals(7, reader.getValue(0, 1));
+        }
+    }
+
+    @Test
+    public void unfinishedChunkTest() throws Exception {
+        Path file = tempDir.resolve("records.bin");
+
+        // without close the file still has the size of the mapped chunk
+        RecordFileWriter writer = new RecordFileWriter(file, 1, 10);
+        writer.begin(1L);
+        writer.begin(2L);
+
+        try (RecordFileReader reader = new RecordFileReader(file)) {
+            assertEquals(2, reader.size());
+        }
+
+        writer.close();
+    }
+
+    @Test
+    public void invalidFileTest() throws Exception {
+        Path file = tempDir.resolve("invalid.bin");
+        Files.write(file, new byte[RecordFileWriter.HEADER_SIZE]);
+
+        assertThrows(IOException.class, () -> new RecordFileReader(file));
+        assertThrows(IllegalArgumentException.class, () -> new RecordFileWriter(file, 0));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class AdaptivePollingTest {
+
+    private static String poll(AdaptivePolling adaptivePolling, int cycles) {
+        StringBuilder polls = new StringBuilder();
+        for (int i = 0; i < cycles; i++) {
+            polls.append(adaptivePolling.poll() ? 'x' : '.');
+        }
+
+        return polls.toString();
+    }
+
+    @Test
+    public void backoffTest() throws Exception {
+        AdaptivePolling adaptivePolling = new AdaptivePolling(4);
+
+        // gaps of 0, 1, 3 and then at most 3 cycles
+        assertEquals("xx.x...x...x", poll(adaptivePolling, 12));
+    }
+
+    @Test
+    public void triggerTest() throws Exception {
+        AdaptivePolling adaptivePolling = new AdaptivePolling(8);
+        assertEquals("xx.x...x", poll(adaptivePolling, 8));
+
+        adaptivePolling.trigger();
+        assertEquals("xx.x", poll(adaptivePolling, 4));
+    }
+
+    @Test
+    public void readTest() throws Exception {
+        AdaptivePolling adaptivePolling = new AdaptivePolling(8);
+
+        // an unchanged value keeps backing off
+        adaptivePolling.read(50.0d);
+        assertEquals("xx.x...x", poll(adaptivePolling, 8));
+        adaptivePolling.read(50.0d);
+        assertEquals(".......x", poll(adaptivePolling, 8));
+
+        // a changed value is polled again in the next cycle
+        adaptivePolling.read(40.0d);
+        assertEquals("xx.x", poll(adaptivePolling, 4));
+
+        // losing the value is a change too
+        adaptivePolling.read(Double.NaN);
+        assertEquals("xx.x", poll(adaptivePolling, 4));
+        adaptivePolling.read(Double.NaN);
+        assertEquals("...x", poll(adaptivePolling, 4));
+    }
+
+    @Test
+    public void everyCycleTest() throws Exception {
+        assertEquals("xxxxx", poll(new AdaptivePolling(1), 5));
+    }
+
+    @Test
+    public void invalidTest() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptivePolling(0));
+    }
+}
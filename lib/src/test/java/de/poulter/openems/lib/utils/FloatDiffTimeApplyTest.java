@@ -0,0 +1,97 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class FloatDiffTimeApplyTest {
+
+    private long now;
+    private float applied;
+    private int applyCount;
+
+    private FloatDiffTimeApply create(double compareDiff) {
+        now = 0;
+        applyCount = 0;
+
+        return new FloatDiffTimeApply(compareDiff, () -> now) {
+            @Override
+            public void accept(float value) {
+                applied = value;
+                applyCount++;
+            }
+        };
+    }
+
+    @Test
+    public void diffTest() throws Exception {
+        FloatDiffTimeApply diffTimeApply = create(0.5d);
+
+        assertTrue(diffTimeApply.nextValue(60L, 50f));
+        assertFalse(diffTimeApply.nextValue(60L, 50.4f));
+        assertTrue(diffTimeApply.nextValue(60L, 51f));
+        assertFalse(diffTimeApply.nextValue(60L, 50.6f));
+
+        assertEquals(51f, applied);
+        assertEquals(2, applyCount);
+    }
+
+    @Test
+    public void timeoutTest() throws Exception {
+        FloatDiffTimeApply diffTimeApply = create(0.5d);
+        assertTrue(diffTimeApply.nextValue(60L, 50f));
+
+        // rewritten after half of the timeout
+        now = TimeUnit.SECONDS.toNanos(30);
+        assertFalse(diffTimeApply.nextValue(60L, 50f));
+
+        // next deadline uses the timeout given when applying
+        now += 1;
+        assertTrue(diffTimeApply.nextValue(5L, 50f));
+
+        // odd timeouts are rounded up
+        now += TimeUnit.SECONDS.toNanos(3);
+        assertFalse(diffTimeApply.nextValue(5L, 50f));
+
+        now += 1;
+        assertTrue(diffTimeApply.nextValue(5L, 50f));
+        assertEquals(3, applyCount);
+    }
+
+    @Test
+    public void resetTest() throws Exception {
+        FloatDiffTimeApply diffTimeApply = create(0.5d);
+        assertTrue(diffTimeApply.nextValue(60L, 50f));
+        assertFalse(diffTimeApply.nextValue(60L, 50f));
+
+        diffTimeApply.reset();
+        assertTrue(diffTimeApply.nextValue(60L, 50f));
+    }
+}
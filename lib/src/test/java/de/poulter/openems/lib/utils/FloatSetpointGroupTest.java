@@ -0,0 +1,107 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class FloatSetpointGroupTest {
+
+    private long now;
+    private float[] applied;
+    private int applyCount;
+
+    private FloatSetpointGroup create(Duration minWriteInterval) {
+        now = 0;
+        applyCount = 0;
+
+        return new FloatSetpointGroup(minWriteInterval, () -> now, 0.5d, 0.01d) {
+            @Override
+            public void accept(float[] values) {
+                applied = values.clone();
+                applyCount++;
+            }
+        };
+    }
+
+    @Test
+    public void deadbandTest() throws Exception {
+        FloatSetpointGroup group = create(Duration.ZERO);
+
+        group.set(0, 50f);
+        group.set(1, 1f);
+        assertTrue(group.apply(60L));
+        assertArrayEquals(new float[] { 50f, 1f }, applied);
+
+        // both within deadband
+        group.set(0, 50.4f);
+        group.set(1, 0.995f);
+        assertFalse(group.apply(60L));
+
+        // one setpoint leaves its deadband, all are written
+        group.set(1, 0.98f);
+        assertTrue(group.apply(60L));
+        assertArrayEquals(new float[] { 50.4f, 0.98f }, applied);
+        assertEquals(2, applyCount);
+    }
+
+    @Test
+    public void keepaliveTest() throws Exception {
+        FloatSetpointGroup group = create(Duration.ZERO);
+        group.set(0, 50f);
+        group.set(1, 1f);
+        assertTrue(group.apply(10L));
+
+        now = TimeUnit.SECONDS.toNanos(5);
+        assertFalse(group.apply(10L));
+
+        now += 1;
+        assertTrue(group.apply(10L));
+        assertEquals(2, applyCount);
+    }
+
+    @Test
+    public void rateLimitTest() throws Exception {
+        FloatSetpointGroup group = create(Duration.ofSeconds(2));
+        group.set(0, 50f);
+        assertTrue(group.apply(60L));
+
+        now = TimeUnit.SECONDS.toNanos(1);
+        group.set(0, 60f);
+        assertFalse(group.apply(60L));
+        assertTrue(group.isDirty());
+
+        now = TimeUnit.SECONDS.toNanos(2);
+        assertTrue(group.apply(60L));
+        assertEquals(60f, group.getWritten(0));
+        assertFalse(group.isDirty());
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *   OpenEMS Addons Lib
+ *
+ *   Written by Christian Poulter.
+ *   Copyright (C) 2025 Christian Poulter <devel(at)poulter.de>
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU Affero General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU Affero General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Affero General Public License
+ *   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *   SPDX-License-Identifier: AGPL-3.0-or-later
+ *
+ */
+
+package de.poulter.openems.lib.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class WriteConfirmationTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void confirmTest() throws Exception {
+        WriteConfirmation writeConfirmation = new WriteConfirmation(0.01d, 3);
+        assertNull(writeConfirmation.getAvgLatency());
+
+        // no pending write
+        writeConfirmation.read(50d, 0L);
+        assertEquals(0L, writeConfirmation.getConfirmedCount());
+
+        writeConfirmation.written(50d, 0L);
+        assertTrue(writeConfirmation.isPending());
+
+        // old value first, then confirmed
+        writeConfirmation.read(100d, 100 * MS);
+        writeConfirmation.read(50.005d, 300 * MS);
+        assertFalse(writeConfirmation.isPending());
+
+        writeConfirmation.written(60d, 1000 * MS);
+        writeConfirmation.read(60d, 1100 * MS);
+
+        assertEquals(2L, writeConfirmation.getConfirmedCount());
+        assertEquals(0L, writeConfirmation.getMismatchCount());
+        assertEquals(100, writeConfirmation.getMinLatency());
+        assertEquals(200, writeConfirmation.getAvgLatency());
+        assertEquals(300, writeConfirmation.getMaxLatency());
+        assertFalse(writeConfirmation.takeRetry());
+    }
+
+    @Test
+    public void mismatchTest() throws Exception {
+        WriteConfirmation writeConfirmation = new WriteConfirmation(0.01d, 2);
+        writeConfirmation.written(50d, 0L);
+
+        writeConfirmation.read(100d, MS);
+        assertFalse(writeConfirmation.takeRetry());
+
+        // undefined reads do not count
+        writeConfirmation.read(Double.NaN, 2 * MS);
+        assertFalse(writeConfirmation.takeRetry());
+
+        writeConfirmation.read(100d, 3 * MS);
+        assertEquals(1L, writeConfirmation.getMismatchCount());
+        assertFalse(writeConfirmation.isPending());
+
+        // retry is requested once
+        assertTrue(writeConfirmation.takeRetry());
+        assertFalse(writeConfirmation.takeRetry());
+        assertNull(writeConfirmation.getMaxLatency());
+    }
+
+    @Test
+    public void invalidTest() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> new WriteConfirmation(-1d, 1));
+        assertThrows(IllegalArgumentException.class, () -> new WriteConfirmation(0d, 0));
+    }
+}